@@ -0,0 +1,40 @@
+package de.clusterfreak.ClusterCore;
+
+import java.util.Random;
+
+/**
+ * Reproducible objects for the benchmarks: Gaussian clouds around cluster
+ * centers spread uniformly over the unit square (hypercube)
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Generates objects
+     *
+     * @param count      Number of objects
+     * @param cluster    Number of clouds
+     * @param dimensions Number of dimensions per object
+     * @param seed       Seed of the random numbers
+     * @return Objects
+     */
+    static FeatureMatrix objects(int count, int cluster, int dimensions, long seed) {
+        Random random = new Random(seed);
+        double[] centers = new double[cluster * dimensions];
+        for (int j = 0; j < centers.length; j++) centers[j] = random.nextDouble();
+        double spread = 0.25 / cluster;
+        double[] data = new double[count * dimensions];
+        for (int i = 0; i < count; i++) {
+            int k = random.nextInt(cluster);
+            for (int j = 0; j < dimensions; j++) {
+                data[i * dimensions + j] = centers[k * dimensions + j] + random.nextGaussian() * spread;
+            }
+        }
+        return new FeatureMatrix(data, dimensions);
+    }
+}
@@ -0,0 +1,148 @@
+package de.clusterfreak.ClusterCore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of {@link FuzzyCMeans}
+ * <p>
+ * <code>run</code> measures the throughput of determineClusterCenters from the
+ * round-robin initialization to termination, <code>iteration</code> the
+ * latency of one iteration (step 3 and step 2 of the next iteration) on
+ * buffers allocated once per trial, without the setup of a run. Allocation
+ * rate per operation: <code>-prof gc</code>.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Xmx8g"})
+public class FuzzyCMeansBenchmark {
+    /**
+     * Number of objects
+     */
+    @Param({"1000", "100000", "10000000"})
+    public int points;
+    /**
+     * Number of clusters
+     */
+    @Param({"2", "8"})
+    public int cluster;
+    /**
+     * Number of dimensions per object
+     */
+    @Param({"2"})
+    public int dimensions;
+    /**
+     * Parallelism of the pool
+     */
+    @Param({"1", "4"})
+    public int threads;
+    /**
+     * Minimum number of objects per parallel task, the initial value of the
+     * estimators
+     */
+    private static final int GRAIN_SIZE = 1024;
+
+    private FeatureMatrix object;
+    private ForkJoinPool pool;
+    /**
+     * Cluster centers of the iteration, row-major; starts converged
+     */
+    private double[] vi;
+    /**
+     * Partition matrix of the previous iteration
+     */
+    private double[] mik;
+    /**
+     * Partition matrix of the current iteration
+     */
+    private double[] mikNext;
+
+    /**
+     * Parameters of {@link #run} only
+     */
+    @State(Scope.Benchmark)
+    public static class Run {
+        /**
+         * Return the complete search path
+         */
+        @Param({"false", "true"})
+        public boolean returnPath;
+    }
+
+    /**
+     * Generates the objects and the pool, and the converged cluster centers
+     * and partition matrix buffers of the iteration
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        object = BenchmarkData.objects(points, cluster, dimensions, 42L);
+        pool = new ForkJoinPool(threads);
+        vi = ClusterMath.flatten(fuzzyCMeans().determineClusterCenters(false, false), dimensions);
+        mik = new double[points * cluster];
+        mikNext = new double[points * cluster];
+    }
+
+    /**
+     * Shuts down the pool
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    private FuzzyCMeans fuzzyCMeans() {
+        FuzzyCMeans fcm = new FuzzyCMeans(object, cluster);
+        fcm.setPool(pool);
+        return fcm;
+    }
+
+    /**
+     * Complete run from the initialization to termination
+     *
+     * @param run Parameters of the run
+     * @return Cluster centers
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public double[][] run(Run run) {
+        return fuzzyCMeans().determineClusterCenters(false, run.returnPath);
+    }
+
+    /**
+     * One iteration of the dense partition matrix, as in every iteration of
+     * a run: step 3 with the sums of the next step 2 in one pass, then the
+     * cluster centers, on the buffers of the trial
+     *
+     * @return Objective function of the iteration
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double iteration() {
+        ClusterStatistics statistics = pool.invoke(new FuzzyCMeans.UpdatePartitionMatrixTask(mik, mikNext, vi, object, cluster, Fuzzifier.DEFAULT, null, false, 0, points, GRAIN_SIZE));
+        double[] swap = mik;
+        mik = mikNext;
+        mikNext = swap;
+        statistics.centers(vi);
+        return statistics.objective;
+    }
+}
@@ -0,0 +1,284 @@
+package de.clusterfreak.ClusterCore;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Distance bounds for skipping objects in step 3
+ * <p>
+ * Per object, a budget is kept: tolerance times the distance to its nearest
+ * center at its last calculation, decremented in every iteration by the
+ * largest shift of a center in that iteration (Hamerly). By the triangle
+ * inequality no distance of an object changed by more than the sum of these
+ * shifts since its last calculation. While the budget is not used up, every
+ * distance of the object changed by at most the factor 1 +/- tolerance, and
+ * the object keeps its membership values: no distances, no memberships, no
+ * center sums. Only the objects calculated again change the cluster center
+ * sums, by the difference of their new and previous contribution (delta
+ * update); the sums of all objects are kept from iteration to iteration.
+ * <p>
+ * The first iteration of a pass calculates all objects. Time and memory per
+ * iteration are O(c * d) for the shifts plus one subtraction per object,
+ * independent of the number of iterations. The bound is one value per object
+ * instead of one per object and cluster (Elkan): fuzzy memberships depend on
+ * the distances to all centers, so a single moved center means a new row of
+ * the partition matrix anyway.
+ * <p>
+ * The change of the partition matrix in step 4 covers all objects: the
+ * objects calculated again with their exact change, the skipped objects with
+ * an upper bound of the change their membership values would have had. With
+ * the largest center shift s of the iteration, no distance of a skipped
+ * object changed by more than the factor 1 +/- r, r = s / (distance to the
+ * nearest center), so no membership value changed by more than the factor
+ * ((1 + r) / (1 - r))^(2/(m-1)) - 1 of itself, for FCM and PCM. The
+ * termination distance thus sees the whole partition matrix, as without
+ * bounds, at one multiply-add per skipped object.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+final class CenterBounds {
+    /**
+     * Quantity/number of clusters
+     */
+    private final int cluster;
+    /**
+     * Largest drift relative to the distance to the nearest center that
+     * keeps the membership values of an object
+     */
+    private final double tolerance;
+    /**
+     * Drift per object that keeps its membership values: tolerance times the
+     * distance to the nearest center at the last calculation, minus the
+     * largest shifts of a center since then
+     */
+    private final double[] budget;
+    /**
+     * Objective function term of the last calculation per object
+     */
+    private final double[] objective;
+    /**
+     * sqrt(sum mik&sup2;) / (distance to the nearest center) per object at its
+     * last calculation
+     */
+    private final double[] scale;
+    /**
+     * Slope of the relative membership bound ((1 + r) / (1 - r))^(2/(m-1)) - 1
+     * over r at the largest r of a skipped object, tolerance / (1 -
+     * tolerance); the bound is convex and 0 at r = 0, so this chord lies
+     * above it for all smaller r
+     */
+    private final double slope;
+    /**
+     * Cluster centers of the previous iteration, row-major
+     */
+    private double[] viBefore;
+    /**
+     * Largest shift of a center in the current iteration
+     */
+    private double shift;
+    /**
+     * Bound of the change of a skipped object per unit of its scale in the
+     * current iteration
+     */
+    private double change;
+    /**
+     * <code>true</code> in the first iteration of a pass
+     */
+    private boolean first;
+    /**
+     * Sums of all objects
+     */
+    private ClusterStatistics total;
+
+    /**
+     * Generates the bounds
+     *
+     * @param count     Number of objects
+     * @param cluster   Number of clusters
+     * @param tolerance Largest relative drift that keeps the membership values
+     * @param m         Fuzzifier
+     */
+    CenterBounds(int count, int cluster, double tolerance, double m) {
+        this.cluster = cluster;
+        this.tolerance = tolerance;
+        this.budget = new double[count];
+        this.objective = new double[count];
+        this.scale = new double[count];
+        double r = tolerance / (1 - tolerance);
+        this.slope = r < 1.0 ? (Math.pow((1 + r) / (1 - r), 2 / (m - 1)) - 1) / r : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Starts a pass; its first iteration calculates all objects
+     */
+    void start() {
+        viBefore = null;
+        total = null;
+    }
+
+    /**
+     * Determines the largest shift of a center towards the cluster centers of
+     * the next iteration
+     *
+     * @param vi Cluster centers, row-major
+     */
+    void advance(double[] vi) {
+        int d = vi.length / cluster;
+        first = viBefore == null;
+        if (first) {
+            viBefore = vi.clone();
+            shift = 0.0;
+            change = 0.0;
+            return;
+        }
+        double max = 0.0;
+        for (int k = 0; k < cluster; k++) max = Math.max(max, ClusterMath.squaredDistance(vi, k * d, viBefore, k * d, d));
+        shift = Math.sqrt(max);
+        // r <= shift / ((1 - tolerance) * distance at the last calculation)
+        change = shift > 0.0 ? slope * shift / (1 - tolerance) : 0.0;
+        System.arraycopy(vi, 0, viBefore, 0, vi.length);
+    }
+
+    /**
+     * Adds the changes of an iteration to the sums of all objects
+     *
+     * @param delta Changes of the objects calculated again, with the change
+     *              of the partition matrix over all objects
+     * @return Sums of all objects with the change of this iteration
+     */
+    ClusterStatistics update(ClusterStatistics delta) {
+        if (total == null) {
+            total = delta;
+            return total;
+        }
+        total.change = 0.0;
+        total.evaluations = 0;
+        return total.merge(delta);
+    }
+
+    /**
+     * RecursiveTask for updating the partition matrix in place, split into
+     * ranges of objects
+     * <p>
+     * Like the FCM and PCM update of the partition matrix, but objects within
+     * their bound keep their membership values, and the sums are the changes
+     * against the previous contribution of the objects calculated again. The
+     * change of the partition matrix adds the bound of the skipped objects.
+     */
+    static final class UpdateTask extends RecursiveTask<ClusterStatistics> {
+        private final CenterBounds bounds;
+        private final double[] mik;
+        private final double[] vi;
+        private final FeatureMatrix object;
+        private final int cluster;
+        private final Fuzzifier m;
+        /**
+         * ni per cluster for PCM, <code>null</code> for FCM
+         */
+        private final double[] ni;
+        private final double[] weight;
+        private final boolean entropy;
+        private final int from;
+        private final int to;
+        private final int grainSize;
+
+        UpdateTask(CenterBounds bounds, double[] mik, double[] vi, FeatureMatrix object, int cluster, Fuzzifier m, double[] ni, double[] weight, boolean entropy, int from, int to, int grainSize) {
+            this.bounds = bounds;
+            this.mik = mik;
+            this.vi = vi;
+            this.object = object;
+            this.cluster = cluster;
+            this.m = m;
+            this.ni = ni;
+            this.weight = weight;
+            this.entropy = entropy;
+            this.from = from;
+            this.to = to;
+            this.grainSize = grainSize;
+        }
+
+        @Override
+        protected ClusterStatistics compute() {
+            if (to - from > grainSize) {
+                int mid = (from + to) >>> 1;
+                UpdateTask left = new UpdateTask(bounds, mik, vi, object, cluster, m, ni, weight, entropy, from, mid, grainSize);
+                left.fork();
+                ClusterStatistics right = new UpdateTask(bounds, mik, vi, object, cluster, m, ni, weight, entropy, mid, to, grainSize).compute();
+                return left.join().merge(right);
+            }
+            int d = object.getDimensions();
+            ClusterStatistics statistics = new ClusterStatistics(cluster, d);
+            boolean first = bounds.first;
+            double[] budget = bounds.budget;
+            double shift = bounds.shift;
+            double tolerance = bounds.tolerance;
+            double[] scale = bounds.scale;
+            double skipped = 0.0;
+            double[] buffer = null;
+            Kernel kernel = Kernel.DEFAULT;
+            double[] centers = null;
+            double[] d2 = null;
+            double[] uik = null;
+            double[] wik = null;
+            for (int i = from; i < to; i++) {
+                // no distance changed by more than the factor 1 +/- tolerance
+                if (!first && (budget[i] -= shift) >= 0.0) {
+                    if (shift > 0.0) skipped += scale[i] * scale[i];
+                    continue;
+                }
+                if (d2 == null) {
+                    buffer = object.rowBuffer();
+                    centers = kernel.centers(vi, cluster, d);
+                    d2 = new double[cluster];
+                    uik = new double[cluster];
+                    wik = new double[cluster];
+                }
+                double[] x = object.row(i, buffer);
+                int xo = object.rowOffset(i);
+                double wi = weight != null ? weight[i] : 1.0;
+                kernel.squaredDistances(x, xo, centers, cluster, d, d2);
+                double min = Double.POSITIVE_INFINITY;
+                for (int k = 0; k < cluster; k++) min = Math.min(min, d2[k]);
+                double nearest = Math.sqrt(min);
+                budget[i] = tolerance * nearest;
+                if (ni == null) {
+                    // (1/dik)^(1/(m-1))
+                    double dik = m.fuzzyWeights(d2, uik, cluster);
+                    for (int k = 0; k < cluster; k++) uik[k] /= dik;
+                } else {
+                    m.possibilisticMemberships(d2, ni, uik, cluster);
+                }
+                double objective = 0.0;
+                double squares = 0.0;
+                for (int k = 0; k < cluster; k++) {
+                    int ik = i * cluster + k;
+                    double u = uik[k];
+                    if (Double.isNaN(u)) u = 1.0;
+                    double before = mik[ik];
+                    mik[ik] = u;
+                    double diff = u - before;
+                    statistics.change += diff * diff;
+                    squares += u * u;
+                    double um = m.power(u);
+                    objective += ni == null ? um * d2[k] : um * d2[k] + ni[k] * m.power(1 - u);
+                    // delta update: new minus previous contribution
+                    wik[k] = wi * (first ? um : um - m.power(before));
+                    if (ni == null) {
+                        statistics.coefficient += wi * (first ? u * u : u * u - before * before);
+                        if (entropy) {
+                            if (u > 0.0) statistics.entropy -= wi * u * Math.log(u);
+                            if (!first && before > 0.0) statistics.entropy += wi * before * Math.log(before);
+                        }
+                    }
+                }
+                statistics.addAll(wik, x, xo);
+                statistics.objective += first ? wi * objective : wi * objective - bounds.objective[i];
+                bounds.objective[i] = wi * objective;
+                scale[i] = Math.sqrt(squares) / nearest;
+                statistics.evaluations += cluster;
+            }
+            if (skipped > 0.0) statistics.change += skipped * bounds.change * bounds.change;
+            return statistics;
+        }
+    }
+}
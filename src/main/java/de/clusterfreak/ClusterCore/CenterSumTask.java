@@ -0,0 +1,78 @@
+package de.clusterfreak.ClusterCore;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * RecursiveTask for the cluster center sums of a dense or sparse partition
+ * matrix, split into ranges of objects and reduced by merging the partial sums;
+ * each object counts with its weight (<code>null</code> = 1)
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+final class CenterSumTask extends RecursiveTask<ClusterStatistics> {
+    private final double[] mik;
+    private final SparsePartition sparse;
+    private final FeatureMatrix object;
+    private final int cluster;
+    private final Fuzzifier m;
+    private final double[] weight;
+    private final int from;
+    private final int to;
+    private final int grainSize;
+
+    CenterSumTask(double[] mik, FeatureMatrix object, int cluster, Fuzzifier m, double[] weight, int from, int to, int grainSize) {
+        this(mik, null, object, cluster, m, weight, from, to, grainSize);
+    }
+
+    CenterSumTask(SparsePartition sparse, FeatureMatrix object, Fuzzifier m, double[] weight, int from, int to, int grainSize) {
+        this(null, sparse, object, sparse.getCluster(), m, weight, from, to, grainSize);
+    }
+
+    private CenterSumTask(double[] mik, SparsePartition sparse, FeatureMatrix object, int cluster, Fuzzifier m, double[] weight, int from, int to, int grainSize) {
+        this.mik = mik;
+        this.sparse = sparse;
+        this.object = object;
+        this.cluster = cluster;
+        this.m = m;
+        this.weight = weight;
+        this.from = from;
+        this.to = to;
+        this.grainSize = grainSize;
+    }
+
+    @Override
+    protected ClusterStatistics compute() {
+        if (to - from > grainSize) {
+            int mid = (from + to) >>> 1;
+            CenterSumTask left = new CenterSumTask(mik, sparse, object, cluster, m, weight, from, mid, grainSize);
+            left.fork();
+            ClusterStatistics right = new CenterSumTask(mik, sparse, object, cluster, m, weight, mid, to, grainSize).compute();
+            return left.join().merge(right);
+        }
+        int d = object.getDimensions();
+        double[] buffer = object.rowBuffer();
+        ClusterStatistics statistics = new ClusterStatistics(cluster, d);
+        if (sparse != null) {
+            int topK = sparse.getTopK();
+            for (int i = from; i < to; i++) {
+                double wi = weight != null ? weight[i] : 1.0;
+                double[] x = object.row(i, buffer);
+                int xo = object.rowOffset(i);
+                for (int j = i * topK; j < i * topK + topK; j++) {
+                    statistics.add(sparse.index[j], wi * m.power(sparse.value[j]), x, xo);
+                }
+            }
+            return statistics;
+        }
+        double[] wik = new double[cluster];
+        for (int i = from; i < to; i++) {
+            double wi = weight != null ? weight[i] : 1.0;
+            double[] x = object.row(i, buffer);
+            int xo = object.rowOffset(i);
+            for (int k = 0; k < cluster; k++) wik[k] = wi * m.power(mik[i * cluster + k]);
+            statistics.addAll(wik, x, xo);
+        }
+        return statistics;
+    }
+}
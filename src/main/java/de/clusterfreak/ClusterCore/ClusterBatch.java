@@ -0,0 +1,121 @@
+package de.clusterfreak.ClusterCore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Concurrent cluster analysis of many independent sets of objects
+ * <p>
+ * Each set of objects gets its own FCM- or PCM-Object, the jobs run on virtual
+ * threads or on a caller supplied (e.g. bounded) executor. Sets that fit into
+ * one parallel task are calculated entirely in their job's thread.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+public class ClusterBatch implements AutoCloseable {
+    /**
+     * Executor for the jobs
+     */
+    private final ExecutorService executor;
+    /**
+     * Executor created by this object and shut down by {@link #close()}
+     */
+    private final boolean ownExecutor;
+
+    /**
+     * Generates a batch running one virtual thread per set of objects
+     */
+    public ClusterBatch() {
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.ownExecutor = true;
+    }
+
+    /**
+     * Generates a batch on a caller supplied executor. The executor is not
+     * shut down by this class.
+     *
+     * @param executor Executor for the jobs
+     */
+    public ClusterBatch(ExecutorService executor) {
+        this.executor = executor;
+        this.ownExecutor = false;
+    }
+
+    /**
+     * Runs FCM on every set of objects
+     *
+     * @param objects      Sets of objects
+     * @param clusterCount Number of clusters
+     * @param random       random initialization
+     * @return One FCM-Object per set, in the same order, after
+     * determineClusterCenters
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException   if a job failed
+     */
+    public List<FuzzyCMeans> fuzzyCMeans(List<FeatureMatrix> objects, int clusterCount, boolean random)
+            throws InterruptedException, ExecutionException {
+        List<Callable<FuzzyCMeans>> jobs = new ArrayList<>(objects.size());
+        for (FeatureMatrix object : objects) {
+            jobs.add(() -> {
+                FuzzyCMeans fcm = new FuzzyCMeans(object, clusterCount);
+                fcm.determineClusterCenters(random, false);
+                return fcm;
+            });
+        }
+        return invokeAll(jobs);
+    }
+
+    /**
+     * Runs PCM on every set of objects
+     *
+     * @param objects      Sets of objects
+     * @param clusterCount Number of clusters
+     * @param repeat       Number of PCM passes for determination of the cluster centers
+     * @param random       random initialization
+     * @return One PCM-Object per set, in the same order, after
+     * determineClusterCenters
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException   if a job failed
+     */
+    public List<PossibilisticCMeans> possibilisticCMeans(List<FeatureMatrix> objects, int clusterCount, int repeat, boolean random)
+            throws InterruptedException, ExecutionException {
+        List<Callable<PossibilisticCMeans>> jobs = new ArrayList<>(objects.size());
+        for (FeatureMatrix object : objects) {
+            jobs.add(() -> {
+                PossibilisticCMeans pcm = new PossibilisticCMeans(object, clusterCount, repeat);
+                pcm.determineClusterCenters(random, false);
+                return pcm;
+            });
+        }
+        return invokeAll(jobs);
+    }
+
+    /**
+     * Runs any jobs, e.g. configured FCM- or PCM-Objects
+     *
+     * @param jobs Jobs
+     * @param <T>  Result type
+     * @return Results in the same order
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException   if a job failed
+     */
+    public <T> List<T> invokeAll(List<? extends Callable<T>> jobs) throws InterruptedException, ExecutionException {
+        List<T> results = new ArrayList<>(jobs.size());
+        for (Future<T> future : executor.invokeAll(jobs)) results.add(future.get());
+        return results;
+    }
+
+    /**
+     * Shuts down the executor if it was created by this object
+     */
+    @Override
+    public void close() {
+        if (ownExecutor) executor.close();
+    }
+}
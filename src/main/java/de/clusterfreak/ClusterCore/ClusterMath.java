@@ -0,0 +1,97 @@
+package de.clusterfreak.ClusterCore;
+
+/**
+ * Shared arithmetic of the clustering algorithms on row-major arrays
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+final class ClusterMath {
+
+    private ClusterMath() {
+    }
+
+    /**
+     * Squared euclidean distance between two rows
+     *
+     * @param x          First array
+     * @param xOffset    Start of the row in x
+     * @param v          Second array
+     * @param vOffset    Start of the row in v
+     * @param dimensions Number of dimensions
+     * @return Squared distance
+     */
+    static double squaredDistance(double[] x, int xOffset, double[] v, int vOffset, int dimensions) {
+        double sum = 0.0;
+        for (int j = 0; j < dimensions; j++) {
+            double diff = x[xOffset + j] - v[vOffset + j];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    /**
+     * Copies one array per row into a row-major array
+     *
+     * @param rows    Rows
+     * @param columns Number of columns
+     * @return Row-major array
+     */
+    static double[] flatten(double[][] rows, int columns) {
+        double[] flat = new double[rows.length * columns];
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i].length != columns)
+                throw new IllegalArgumentException("row " + i + " has " + rows[i].length + " columns, expected " + columns);
+            System.arraycopy(rows[i], 0, flat, i * columns, columns);
+        }
+        return flat;
+    }
+
+    /**
+     * Copies a row-major array into a column-major array
+     *
+     * @param flat    Row-major array
+     * @param rows    Number of rows
+     * @param columns Number of columns
+     * @return Column-major array, element (r, c) at c * rows + r
+     */
+    static double[] transpose(double[] flat, int rows, int columns) {
+        double[] result = new double[rows * columns];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) result[c * rows + r] = flat[r * columns + c];
+        }
+        return result;
+    }
+
+    /**
+     * Copies a row-major array into one array per row
+     *
+     * @param flat    Row-major array
+     * @param rows    Number of rows
+     * @param columns Number of columns
+     * @return Rows
+     */
+    static double[][] toRows(double[] flat, int rows, int columns) {
+        double[][] result = new double[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(flat, i * columns, result[i], 0, columns);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the size of a row-major matrix that has to fit into one array,
+     * e.g. a partition matrix
+     *
+     * @param rows    Number of rows
+     * @param columns Number of columns
+     * @return rows * columns
+     * @throws IllegalArgumentException if the matrix does not fit into one array
+     */
+    static int size(int rows, int columns) {
+        long size = (long) rows * columns;
+        if (size > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException(rows + " x " + columns + " values do not fit into one array");
+        return (int) size;
+    }
+}
@@ -0,0 +1,407 @@
+package de.clusterfreak.ClusterCore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fitted FCM or PCM model
+ * <p>
+ * Holds the cluster centers, the fuzzifier m and, for PCM, ni, and scores new
+ * objects with the membership function of the run it was taken from
+ * ({@link FuzzyCMeans#getModel()}, {@link PossibilisticCMeans#getModel()}).
+ * The membership values of a batch of objects are written into a caller
+ * supplied buffer without allocation; a model is immutable and may be used by
+ * several threads at the same time.
+ * <p>
+ * Binary format, all little-endian:
+ *
+ * <pre>
+ * Offset  Size  Content
+ *  0      4     Magic "CFCM"
+ *  4      4     Version (1)
+ *  8      4     Type (1 = FCM, 2 = PCM)
+ * 12      4     Number of clusters
+ * 16      4     Number of dimensions
+ * 20      4     reserved (0)
+ * 24      8     Fuzzifier m (double)
+ * 32            Cluster centers, row-major (doubles), for PCM followed by ni
+ * </PRE>
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+public final class ClusterModel {
+    /**
+     * Magic number "CFCM"
+     */
+    private static final int MAGIC = 0x4D434643;
+    /**
+     * Version of the binary format
+     */
+    private static final int VERSION = 1;
+    /**
+     * Size of the header in bytes
+     */
+    private static final int HEADER = 32;
+    /**
+     * Type FCM
+     */
+    private static final int FCM = 1;
+    /**
+     * Type PCM
+     */
+    private static final int PCM = 2;
+    /**
+     * Quantity/number of clusters
+     */
+    private final int cluster;
+    /**
+     * Number of dimensions per object
+     */
+    private final int dimensions;
+    /**
+     * Fuzzifier
+     */
+    private final double m;
+    /**
+     * Powers of the fuzzifier
+     */
+    private final Fuzzifier fuzzifier;
+    /**
+     * Cluster centers vi, row-major
+     */
+    private final double[] vi;
+    /**
+     * ni per cluster, <code>null</code> for FCM
+     */
+    private final double[] ni;
+
+    /**
+     * Generates a model on copied arrays
+     *
+     * @param vi         Cluster centers, row-major
+     * @param cluster    Number of clusters
+     * @param dimensions Number of dimensions per object
+     * @param m          Fuzzifier
+     * @param ni         ni per cluster, <code>null</code> for FCM
+     */
+    ClusterModel(double[] vi, int cluster, int dimensions, double m, double[] ni) {
+        if (cluster < 1 || dimensions < 1 || vi.length != cluster * dimensions)
+            throw new IllegalArgumentException("vi has " + vi.length + " values, expected " + cluster + " * " + dimensions);
+        if (ni != null && ni.length != cluster)
+            throw new IllegalArgumentException("ni has " + ni.length + " values, expected " + cluster);
+        this.fuzzifier = Fuzzifier.of(m);
+        this.cluster = cluster;
+        this.dimensions = dimensions;
+        this.m = m;
+        this.vi = vi.clone();
+        this.ni = ni == null ? null : ni.clone();
+    }
+
+    /**
+     * Generates a FCM model with m = 2
+     *
+     * @param vi Cluster centers (one row per cluster)
+     * @return Model
+     */
+    public static ClusterModel fuzzy(double[][] vi) {
+        return fuzzy(vi, 2);
+    }
+
+    /**
+     * Generates a FCM model with the fuzzifier of its run
+     *
+     * @param vi Cluster centers (one row per cluster)
+     * @param m  Fuzzifier, greater than 1
+     * @return Model
+     */
+    public static ClusterModel fuzzy(double[][] vi, double m) {
+        if (!(m > 1.0) || Double.isInfinite(m)) throw new IllegalArgumentException("m must be greater than 1");
+        int dimensions = vi.length > 0 ? vi[0].length : 0;
+        return new ClusterModel(ClusterMath.flatten(vi, dimensions), vi.length, dimensions, m, null);
+    }
+
+    /**
+     * Generates a PCM model with m = 2
+     *
+     * @param vi Cluster centers (one row per cluster)
+     * @param ni ni per cluster
+     * @return Model
+     */
+    public static ClusterModel possibilistic(double[][] vi, double[] ni) {
+        return possibilistic(vi, ni, 2);
+    }
+
+    /**
+     * Generates a PCM model with the fuzzifier of its run
+     *
+     * @param vi Cluster centers (one row per cluster)
+     * @param ni ni per cluster
+     * @param m  Fuzzifier, greater than 1
+     * @return Model
+     */
+    public static ClusterModel possibilistic(double[][] vi, double[] ni, double m) {
+        if (!(m > 1.0) || Double.isInfinite(m)) throw new IllegalArgumentException("m must be greater than 1");
+        if (ni == null) throw new IllegalArgumentException("ni required");
+        int dimensions = vi.length > 0 ? vi[0].length : 0;
+        return new ClusterModel(ClusterMath.flatten(vi, dimensions), vi.length, dimensions, m, ni);
+    }
+
+    /**
+     * Writes the membership values of one object
+     *
+     * @param x         Coordinates
+     * @param xOffset   Start of the object in x
+     * @param out       Membership values
+     * @param outOffset Start of the cluster values in out
+     */
+    public void membership(double[] x, int xOffset, double[] out, int outOffset) {
+        for (int k = 0; k < cluster; k++) {
+            out[outOffset + k] = ClusterMath.squaredDistance(x, xOffset, vi, k * dimensions, dimensions);
+        }
+        if (ni != null) {
+            for (int k = 0; k < cluster; k++) {
+                double u = fuzzifier.possibilisticMembership(out[outOffset + k], ni[k]);
+                out[outOffset + k] = Double.isNaN(u) ? 1.0 : u;
+            }
+            return;
+        }
+        // (1/dik)^(1/(m-1))
+        double sum = 0.0;
+        for (int k = 0; k < cluster; k++) {
+            out[outOffset + k] = fuzzifier.fuzzyWeight(out[outOffset + k]);
+            sum += out[outOffset + k];
+        }
+        for (int k = 0; k < cluster; k++) {
+            double u = out[outOffset + k] / sum;
+            out[outOffset + k] = Double.isNaN(u) ? 1.0 : u;
+        }
+    }
+
+    /**
+     * Writes the membership values of a batch of row-major objects
+     *
+     * @param x         Coordinates, row-major
+     * @param xOffset   Start of the first object in x
+     * @param count     Number of objects
+     * @param out       Membership values, row-major (count * clusters)
+     * @param outOffset Start of the first row in out
+     */
+    public void membership(double[] x, int xOffset, int count, double[] out, int outOffset) {
+        for (int i = 0; i < count; i++) {
+            membership(x, xOffset + i * dimensions, out, outOffset + i * cluster);
+        }
+    }
+
+    /**
+     * Writes the membership values of objects without allocation
+     *
+     * @param object Objects
+     * @param out    Membership values, row-major (count * clusters)
+     */
+    public void membership(FeatureMatrix object, double[] out) {
+        check(object);
+        int count = object.getCount();
+        if (out.length < (long) count * cluster)
+            throw new IllegalArgumentException("out has " + out.length + " values, expected " + (long) count * cluster);
+        double[] buffer = object.rowBuffer();
+        for (int i = 0; i < count; i++) membership(object.row(i, buffer), object.rowOffset(i), out, i * cluster);
+    }
+
+    /**
+     * Returns the cluster with the largest membership value of one object:
+     * the nearest center for FCM, the smallest dik&sup2; / ni for PCM
+     *
+     * @param x       Coordinates
+     * @param xOffset Start of the object in x
+     * @return Cluster
+     */
+    public int predict(double[] x, int xOffset) {
+        int best = 0;
+        double bestValue = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < cluster; k++) {
+            double value = ClusterMath.squaredDistance(x, xOffset, vi, k * dimensions, dimensions);
+            if (ni != null) value /= ni[k];
+            if (value < bestValue) {
+                bestValue = value;
+                best = k;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Writes the cluster with the largest membership value of each object
+     * without allocation
+     *
+     * @param object Objects
+     * @param out    Cluster per object
+     */
+    public void predict(FeatureMatrix object, int[] out) {
+        check(object);
+        int count = object.getCount();
+        if (out.length < count) throw new IllegalArgumentException("out has " + out.length + " values, expected " + count);
+        double[] buffer = object.rowBuffer();
+        for (int i = 0; i < count; i++) out[i] = predict(object.row(i, buffer), object.rowOffset(i));
+    }
+
+    private void check(FeatureMatrix object) {
+        if (object.getDimensions() != dimensions)
+            throw new IllegalArgumentException("objects have " + object.getDimensions() + " dimensions, expected " + dimensions);
+    }
+
+    /**
+     * Returns the number of clusters
+     *
+     * @return Clusters
+     */
+    public int getCluster() {
+        return cluster;
+    }
+
+    /**
+     * Returns the number of dimensions per object
+     *
+     * @return Dimensions
+     */
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Returns the fuzzifier
+     *
+     * @return m
+     */
+    public double getM() {
+        return m;
+    }
+
+    /**
+     * Returns whether the model is a PCM model
+     *
+     * @return <code>true</code> for PCM, <code>false</code> for FCM
+     */
+    public boolean isPossibilistic() {
+        return ni != null;
+    }
+
+    /**
+     * Returns cluster centers vi
+     *
+     * @return vi
+     */
+    public double[][] getVi() {
+        return ClusterMath.toRows(vi, cluster, dimensions);
+    }
+
+    /**
+     * Returns ni per cluster
+     *
+     * @return ni (copy), <code>null</code> for FCM
+     */
+    public double[] getNi() {
+        return ni == null ? null : ni.clone();
+    }
+
+    /**
+     * Returns the binary form
+     *
+     * @return Bytes
+     */
+    public byte[] toByteArray() {
+        int values = vi.length + (ni != null ? cluster : 0);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + values * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(ni != null ? PCM : FCM).putInt(cluster).putInt(dimensions).putInt(0).putDouble(m);
+        for (double v : vi) buffer.putDouble(v);
+        if (ni != null) for (double v : ni) buffer.putDouble(v);
+        return buffer.array();
+    }
+
+    /**
+     * Writes the binary form
+     *
+     * @param out Stream, not closed
+     * @throws IOException if the stream cannot be written
+     */
+    public void write(OutputStream out) throws IOException {
+        out.write(toByteArray());
+    }
+
+    /**
+     * Reads a model from its binary form
+     *
+     * @param bytes Bytes
+     * @return Model
+     * @throws IOException if the bytes are not a model
+     */
+    public static ClusterModel of(byte[] bytes) throws IOException {
+        if (bytes.length < HEADER) throw new IOException("header incomplete");
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int cluster = header(buffer);
+        int dimensions = buffer.getInt(16);
+        boolean possibilistic = buffer.getInt(8) == PCM;
+        long values = (long) cluster * dimensions + (possibilistic ? cluster : 0);
+        if (bytes.length < HEADER + values * Double.BYTES) throw new IOException("values incomplete");
+        return read(buffer, cluster, dimensions, possibilistic);
+    }
+
+    /**
+     * Reads a model from its binary form
+     *
+     * @param in Stream, read up to the end of the model, not closed
+     * @return Model
+     * @throws IOException if the stream cannot be read or is not a model
+     */
+    public static ClusterModel read(InputStream in) throws IOException {
+        byte[] header = in.readNBytes(HEADER);
+        if (header.length < HEADER) throw new IOException("header incomplete");
+        ByteBuffer headerBuffer = ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN);
+        int cluster = header(headerBuffer);
+        int dimensions = headerBuffer.getInt(16);
+        boolean possibilistic = headerBuffer.getInt(8) == PCM;
+        long values = (long) cluster * dimensions + (possibilistic ? cluster : 0);
+        if (values * Double.BYTES > Integer.MAX_VALUE - HEADER) throw new IOException("invalid size " + cluster + " x " + dimensions);
+        byte[] body = in.readNBytes((int) values * Double.BYTES);
+        if (body.length < values * Double.BYTES) throw new IOException("values incomplete");
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + body.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(header).put(body);
+        return read(buffer, cluster, dimensions, possibilistic);
+    }
+
+    /**
+     * Checks the header
+     *
+     * @return Number of clusters
+     */
+    private static int header(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt(0) != MAGIC) throw new IOException("not a cluster model");
+        if (buffer.getInt(4) != VERSION) throw new IOException("unsupported version " + buffer.getInt(4));
+        int type = buffer.getInt(8);
+        if (type != FCM && type != PCM) throw new IOException("unsupported type " + type);
+        int cluster = buffer.getInt(12);
+        int dimensions = buffer.getInt(16);
+        if (cluster < 1 || dimensions < 1) throw new IOException("invalid size " + cluster + " x " + dimensions);
+        return cluster;
+    }
+
+    private static ClusterModel read(ByteBuffer buffer, int cluster, int dimensions, boolean possibilistic) throws IOException {
+        double m = buffer.getDouble(24);
+        buffer.position(HEADER);
+        double[] vi = new double[cluster * dimensions];
+        for (int j = 0; j < vi.length; j++) vi[j] = buffer.getDouble();
+        double[] ni = null;
+        if (possibilistic) {
+            ni = new double[cluster];
+            for (int k = 0; k < cluster; k++) ni[k] = buffer.getDouble();
+        }
+        try {
+            return new ClusterModel(vi, cluster, dimensions, m, ni);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package de.clusterfreak.ClusterCore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Selection of the number of clusters by fuzzy validity indices
+ * <p>
+ * Runs FCM for every number of clusters from minCluster to maxCluster on the
+ * same objects. The range is split into chains of consecutive numbers that
+ * run concurrently ({@link ClusterBatch}); within a chain, c + 1 clusters
+ * start from the result for c plus one center picked by k-means++
+ * ({@link Seeding}), the first of a chain starts from k-means++ seeding. The
+ * validity indices are accumulated in step 3 of each run
+ * ({@link FuzzyCMeans#getValidity()}); only the cluster centers are kept, a
+ * partition matrix exists only per running chain.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ * @see ClusterValidity
+ */
+public class ClusterSelection {
+    /**
+     * Criteria for the best number of clusters
+     */
+    public enum Criterion {
+        /**
+         * Largest partition coefficient
+         */
+        PARTITION_COEFFICIENT,
+        /**
+         * Smallest partition entropy
+         */
+        PARTITION_ENTROPY,
+        /**
+         * Smallest Xie-Beni index
+         */
+        XIE_BENI
+    }
+
+    /**
+     * Each Object represents 1 cluster vi
+     */
+    private final FeatureMatrix object;
+    /**
+     * Smallest number of clusters
+     */
+    private final int minCluster;
+    /**
+     * Largest number of clusters
+     */
+    private final int maxCluster;
+    /**
+     * Termination threshold, initial value 1.0e-7
+     */
+    private double e = 1.0e-7;
+    /**
+     * Criterion, initial value XIE_BENI
+     */
+    private Criterion criterion = Criterion.XIE_BENI;
+    /**
+     * Number of concurrent chains, initial value number of processors
+     */
+    private int chains = Runtime.getRuntime().availableProcessors();
+    /**
+     * Executor for the chains, <code>null</code> runs one virtual thread per
+     * chain
+     */
+    private ExecutorService executor;
+    /**
+     * Pool for the parallel calculation steps, <code>null</code> uses the
+     * common pool
+     */
+    private ForkJoinPool pool;
+    /**
+     * Minimum number of objects per parallel task, initial value 1024
+     */
+    private int grainSize = 1024;
+    /**
+     * Maximum number of iterations per FCM run, 0 = unlimited
+     */
+    private int maxIterations;
+    /**
+     * Seed of the random numbers of the seeding, initial value 0
+     */
+    private long seed;
+    /**
+     * Weight per object, <code>null</code> weights all objects with 1
+     */
+    private double[] weights;
+    /**
+     * Validity indices per number of clusters of the last run
+     */
+    private List<ClusterValidity> results;
+
+    /**
+     * Generates a selection over a range of numbers of clusters
+     *
+     * @param object     Objects
+     * @param minCluster Smallest number of clusters, at least 2
+     * @param maxCluster Largest number of clusters
+     */
+    public ClusterSelection(FeatureMatrix object, int minCluster, int maxCluster) {
+        if (minCluster < 2 || maxCluster < minCluster)
+            throw new IllegalArgumentException("cluster range [" + minCluster + ", " + maxCluster + "] invalid");
+        this.object = object;
+        this.minCluster = minCluster;
+        this.maxCluster = maxCluster;
+    }
+
+    /**
+     * Generates a selection over a range of numbers of clusters
+     *
+     * @param object     Objects
+     * @param minCluster Smallest number of clusters, at least 2
+     * @param maxCluster Largest number of clusters
+     * @param e          Termination threshold, initial value 1.0e-7
+     */
+    public ClusterSelection(FeatureMatrix object, int minCluster, int maxCluster, double e) {
+        this(object, minCluster, maxCluster);
+        this.e = e;
+    }
+
+    /**
+     * Runs FCM for every number of clusters and returns the best result
+     *
+     * @return Validity indices and model of the best number of clusters
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException   if a chain failed
+     */
+    public ClusterValidity run() throws InterruptedException, ExecutionException {
+        int count = maxCluster - minCluster + 1;
+        int chainCount = Math.min(chains, count);
+        ClusterValidity[] validity = new ClusterValidity[count];
+        List<Callable<Void>> jobs = new ArrayList<>(chainCount);
+        for (int j = 0; j < chainCount; j++) {
+            int from = minCluster + (int) ((long) j * count / chainCount);
+            int to = minCluster + (int) ((long) (j + 1) * count / chainCount);
+            jobs.add(() -> {
+                chain(from, to, validity);
+                return null;
+            });
+        }
+        try (ClusterBatch batch = executor != null ? new ClusterBatch(executor) : new ClusterBatch()) {
+            batch.invokeAll(jobs);
+        }
+        results = List.of(validity);
+        return getBest();
+    }
+
+    /**
+     * Runs FCM for the numbers of clusters from (inclusive) to to (exclusive),
+     * each starting from the result of the previous one
+     */
+    private void chain(int from, int to, ClusterValidity[] validity) {
+        int d = object.getDimensions();
+        double[] vi = null;
+        for (int c = from; c < to; c++) {
+            // Step 1: Initialization
+            if (vi == null) vi = Seeding.kMeansPlusPlus(object, weights, c, seed + c, pool, grainSize);
+            else vi = Seeding.extend(object, weights, vi, c - 1, seed + c, pool, grainSize);
+            FuzzyCMeans fcm = new FuzzyCMeans(object, c, e);
+            fcm.setPool(pool);
+            fcm.setGrainSize(grainSize);
+            fcm.setWeights(weights);
+            fcm.setValidityIndices(true);
+            fcm.setMaxIterations(maxIterations);
+            fcm.determineClusterCenters(ClusterMath.toRows(vi, c, d), false);
+            validity[c - minCluster] = fcm.getValidity();
+            vi = ClusterMath.flatten(fcm.getVi(), d);
+        }
+    }
+
+    /**
+     * Returns the best result of the last run by the criterion
+     *
+     * @return Validity indices and model, or <code>null</code> before run
+     */
+    public ClusterValidity getBest() {
+        if (results == null) return null;
+        ClusterValidity best = null;
+        double bestValue = Double.NaN;
+        for (ClusterValidity validity : results) {
+            double value = switch (criterion) {
+                case PARTITION_COEFFICIENT -> -validity.getPartitionCoefficient();
+                case PARTITION_ENTROPY -> validity.getPartitionEntropy();
+                case XIE_BENI -> validity.getXieBeni();
+            };
+            if (best == null || value < bestValue || Double.isNaN(bestValue)) {
+                best = validity;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the validity indices of the last run
+     *
+     * @return One entry per number of clusters, from minCluster to maxCluster,
+     * or <code>null</code> before run
+     */
+    public List<ClusterValidity> getResults() {
+        return results;
+    }
+
+    /**
+     * Set the criterion for the best number of clusters
+     *
+     * @param criterion Criterion, initial value XIE_BENI
+     */
+    public void setCriterion(Criterion criterion) {
+        if (criterion == null) throw new IllegalArgumentException("criterion must not be null");
+        this.criterion = criterion;
+    }
+
+    /**
+     * Set the number of concurrent chains
+     *
+     * @param chains Chains, initial value number of processors
+     */
+    public void setChains(int chains) {
+        if (chains < 1) throw new IllegalArgumentException("chains must be positive");
+        this.chains = chains;
+    }
+
+    /**
+     * Set the executor for the chains. The executor is not shut down by this
+     * class.
+     *
+     * @param executor Executor, <code>null</code> runs one virtual thread per
+     *                 chain (initial value)
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Set the pool for the parallel calculation steps of the FCM runs. The
+     * pool is not shut down by this class.
+     *
+     * @param pool Pool, <code>null</code> uses the common pool
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Set the minimum number of objects per parallel task
+     *
+     * @param grainSize Objects per task, initial value 1024
+     */
+    public void setGrainSize(int grainSize) {
+        if (grainSize < 1) throw new IllegalArgumentException("grainSize must be positive");
+        this.grainSize = grainSize;
+    }
+
+    /**
+     * Set the maximum number of iterations per FCM run
+     *
+     * @param maxIterations Iterations, 0 = unlimited (initial value)
+     */
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations < 0) throw new IllegalArgumentException("maxIterations must not be negative");
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Set the seed of the random numbers of the seeding
+     *
+     * @param seed Seed, initial value 0
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Set a weight per object, see {@link FuzzyCMeans#setWeights(double[])}
+     *
+     * @param weights Weight per object (not copied), <code>null</code> weights
+     *                all objects with 1 (initial value)
+     */
+    public void setWeights(double[] weights) {
+        FuzzyCMeans.checkWeights(weights, object.getCount());
+        this.weights = weights;
+    }
+}
@@ -0,0 +1,140 @@
+package de.clusterfreak.ClusterCore;
+
+/**
+ * Per-cluster sums for the determination of the cluster centers
+ * <p>
+ * Each parallel task accumulates into its own instance, the partial results
+ * are merged when the tasks are joined. The sums are kept in the layout of
+ * {@link Kernel#DEFAULT}; {@link #index(int, int)} locates a value.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+final class ClusterStatistics {
+    /**
+     * Quantity/number of clusters
+     */
+    final int cluster;
+    /**
+     * Number of dimensions per object
+     */
+    final int dimensions;
+    /**
+     * Sum of mik^m * object per cluster, row-major or dimension-major
+     */
+    final double[] sum;
+    /**
+     * <code>true</code> if sum is dimension-major
+     */
+    final boolean transposed;
+    /**
+     * Sum of mik^m per cluster
+     */
+    final double[] weight;
+    /**
+     * Sum of the squared changes of the partition matrix
+     */
+    double change;
+    /**
+     * Sum of the objective function terms of the new partition matrix
+     */
+    double objective;
+    /**
+     * Sum of mik&sup2; (partition coefficient times n)
+     */
+    double coefficient;
+    /**
+     * Sum of -mik * ln(mik) (partition entropy times n), only if requested
+     */
+    double entropy;
+    /**
+     * Sum of mik&sup2; without weights, only for a single precision partition
+     * matrix (its rounding noise, see {@link SinglePrecision})
+     */
+    double squares;
+    /**
+     * Number of membership values calculated, only counted with distance
+     * bounds
+     */
+    long evaluations;
+
+    ClusterStatistics(int cluster, int dimensions) {
+        this.cluster = cluster;
+        this.dimensions = dimensions;
+        this.sum = new double[cluster * dimensions];
+        this.weight = new double[cluster];
+        this.transposed = Kernel.DEFAULT.transposed(dimensions);
+    }
+
+    /**
+     * Returns the position of a value in sum
+     *
+     * @param k Cluster
+     * @param j Dimension
+     * @return Index in sum
+     */
+    int index(int k, int j) {
+        return transposed ? j * cluster + k : k * dimensions + j;
+    }
+
+    /**
+     * Adds one object with weight w to cluster k
+     *
+     * @param k       Cluster
+     * @param w       Weight mik^m
+     * @param x       Objects
+     * @param xOffset Start of the object in x
+     */
+    void add(int k, double w, double[] x, int xOffset) {
+        if (transposed) {
+            for (int j = 0; j < dimensions; j++) sum[j * cluster + k] += w * x[xOffset + j];
+        } else {
+            Kernel.DEFAULT.accumulate(sum, k * dimensions, w, x, xOffset, dimensions);
+        }
+        weight[k] += w;
+    }
+
+    /**
+     * Adds one object to all clusters
+     *
+     * @param w       Weight mik^m per cluster
+     * @param x       Objects
+     * @param xOffset Start of the object in x
+     */
+    void addAll(double[] w, double[] x, int xOffset) {
+        Kernel.DEFAULT.accumulate(sum, w, x, xOffset, cluster, dimensions);
+        for (int k = 0; k < cluster; k++) weight[k] += w[k];
+    }
+
+    /**
+     * Adds the sums of another instance
+     *
+     * @param other Partial sums
+     * @return this
+     */
+    ClusterStatistics merge(ClusterStatistics other) {
+        for (int j = 0; j < sum.length; j++) sum[j] += other.sum[j];
+        for (int k = 0; k < cluster; k++) weight[k] += other.weight[k];
+        change += other.change;
+        objective += other.objective;
+        coefficient += other.coefficient;
+        entropy += other.entropy;
+        squares += other.squares;
+        evaluations += other.evaluations;
+        return this;
+    }
+
+    /**
+     * Writes the cluster centers sum / weight; a cluster without weight keeps
+     * its center
+     *
+     * @param vi Cluster centers, row-major
+     */
+    void centers(double[] vi) {
+        for (int k = 0; k < cluster; k++) {
+            if (weight[k] == 0.0) continue;
+            int v = k * dimensions;
+            for (int j = 0; j < dimensions; j++) vi[v + j] = sum[index(k, j)] / weight[k];
+        }
+    }
+}
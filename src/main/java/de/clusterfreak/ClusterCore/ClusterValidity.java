@@ -0,0 +1,128 @@
+package de.clusterfreak.ClusterCore;
+
+/**
+ * Fuzzy validity indices of a FCM result
+ * <p>
+ * Calculated from the sums of the last step 3 and the cluster centers, so no
+ * partition matrix is needed:
+ *
+ * <pre>
+ * Partition coefficient PC = sum mik&sup2; / n                      (maximum)
+ * Partition entropy     PE = -sum mik * ln(mik) / n             (minimum)
+ * Xie-Beni index        XB = sum mik&sup2; * dik&sup2; / (n * min |vi - vj|&sup2;) (minimum)
+ * </PRE>
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ * @see ClusterSelection
+ */
+public final class ClusterValidity {
+    /**
+     * Fitted model
+     */
+    private final ClusterModel model;
+    /**
+     * Partition coefficient
+     */
+    private final double partitionCoefficient;
+    /**
+     * Partition entropy, NaN if not calculated
+     */
+    private final double partitionEntropy;
+    /**
+     * Xie-Beni index
+     */
+    private final double xieBeni;
+    /**
+     * Objective function sum mik&sup2; * dik&sup2;
+     */
+    private final double objective;
+
+    /**
+     * Generates the validity indices from the sums of step 3
+     *
+     * @param model       Fitted model
+     * @param count       Number of objects, or the sum of their weights
+     * @param objective   Sum mik&sup2; * dik&sup2;
+     * @param coefficient Sum mik&sup2;
+     * @param entropy     Sum -mik * ln(mik), NaN if not calculated
+     * @param vi          Cluster centers, row-major
+     */
+    ClusterValidity(ClusterModel model, double count, double objective, double coefficient, double entropy, double[] vi) {
+        this.model = model;
+        this.objective = objective;
+        this.partitionCoefficient = coefficient / count;
+        this.partitionEntropy = entropy / count;
+        int cluster = model.getCluster();
+        int d = model.getDimensions();
+        double separation = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < cluster; k++) {
+            for (int l = k + 1; l < cluster; l++) {
+                separation = Math.min(separation, ClusterMath.squaredDistance(vi, k * d, vi, l * d, d));
+            }
+        }
+        this.xieBeni = objective / (count * separation);
+    }
+
+    /**
+     * Returns the number of clusters
+     *
+     * @return Clusters
+     */
+    public int getCluster() {
+        return model.getCluster();
+    }
+
+    /**
+     * Returns the fitted model
+     *
+     * @return Model
+     */
+    public ClusterModel getModel() {
+        return model;
+    }
+
+    /**
+     * Returns the partition coefficient, 1/c (fuzzy) to 1 (crisp); larger is
+     * better
+     *
+     * @return PC
+     */
+    public double getPartitionCoefficient() {
+        return partitionCoefficient;
+    }
+
+    /**
+     * Returns the partition entropy, 0 (crisp) to ln(c) (fuzzy); smaller is
+     * better
+     *
+     * @return PE, NaN if not calculated
+     */
+    public double getPartitionEntropy() {
+        return partitionEntropy;
+    }
+
+    /**
+     * Returns the Xie-Beni index, compactness over separation; smaller is
+     * better
+     *
+     * @return XB, 0 for one cluster, infinite for coinciding centers
+     */
+    public double getXieBeni() {
+        return xieBeni;
+    }
+
+    /**
+     * Returns the objective function sum mik&sup2; * dik&sup2;
+     *
+     * @return Objective
+     */
+    public double getObjective() {
+        return objective;
+    }
+
+    @Override
+    public String toString() {
+        return "c=" + getCluster() + " PC=" + partitionCoefficient + " PE=" + partitionEntropy + " XB=" + xieBeni;
+    }
+}
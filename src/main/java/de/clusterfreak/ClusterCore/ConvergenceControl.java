@@ -0,0 +1,199 @@
+package de.clusterfreak.ClusterCore;
+
+import java.util.Arrays;
+
+/**
+ * Termination criteria and over-relaxation of the cluster centers, shared by
+ * FCM and PCM
+ * <p>
+ * Step 4 ends the iteration when the change of the partition matrix is below
+ * the termination threshold e, or, if set, after the maximum number of
+ * iterations, when the relative change of the objective function or the
+ * shift of the cluster centers is below its tolerance. Step 2 moves the
+ * cluster centers by the relaxation factor times the FCM/PCM step; the factor
+ * falls back to 1 for the rest of the pass as soon as two successive steps
+ * point in opposite directions (overshooting). The objective function is no
+ * safeguard here: with the memberships of the plain distance it does not
+ * decrease strictly even without relaxation. A stop request from another
+ * thread ends the iteration at the next step 4.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+final class ConvergenceControl {
+    /**
+     * Maximum number of iterations per pass, 0 = unlimited
+     */
+    int maxIterations;
+    /**
+     * Tolerance of the center shift, 0 = not used
+     */
+    double centerTolerance;
+    /**
+     * Tolerance of the relative change of the objective function, 0 = not used
+     */
+    double objectiveTolerance;
+    /**
+     * Relaxation factor of the cluster center step, 1 = none
+     */
+    double relaxation = 1.0;
+    /**
+     * Stop requested, e.g. by another thread
+     */
+    volatile boolean stopped;
+    /**
+     * Iterations of the current pass
+     */
+    private int iteration;
+    /**
+     * Relaxation factor of the current pass
+     */
+    private double omega;
+    /**
+     * Objective function of the previous iteration
+     */
+    private double objectiveBefore;
+    /**
+     * Euclidean length of the last cluster center step (without relaxation)
+     */
+    private double shift;
+    /**
+     * Cluster centers of the next iteration
+     */
+    private double[] viNext;
+    /**
+     * Previous cluster center step (without relaxation)
+     */
+    private double[] stepBefore;
+
+    /**
+     * Checks and sets the maximum number of iterations
+     *
+     * @param maxIterations Iterations per pass, 0 = unlimited
+     */
+    void setMaxIterations(int maxIterations) {
+        if (maxIterations < 0) throw new IllegalArgumentException("maxIterations must not be negative");
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Checks and sets the tolerance of the center shift
+     *
+     * @param centerTolerance Tolerance, 0 = not used
+     */
+    void setCenterTolerance(double centerTolerance) {
+        if (!(centerTolerance >= 0.0)) throw new IllegalArgumentException("centerTolerance must not be negative");
+        this.centerTolerance = centerTolerance;
+    }
+
+    /**
+     * Checks and sets the tolerance of the relative change of the objective
+     * function
+     *
+     * @param objectiveTolerance Tolerance, 0 = not used
+     */
+    void setObjectiveTolerance(double objectiveTolerance) {
+        if (!(objectiveTolerance >= 0.0)) throw new IllegalArgumentException("objectiveTolerance must not be negative");
+        this.objectiveTolerance = objectiveTolerance;
+    }
+
+    /**
+     * Checks and sets the relaxation factor
+     *
+     * @param relaxation Factor in [1, 2), 1 = none
+     */
+    void setRelaxation(double relaxation) {
+        if (!(relaxation >= 1.0 && relaxation < 2.0)) throw new IllegalArgumentException("relaxation must be in [1, 2)");
+        this.relaxation = relaxation;
+    }
+
+    /**
+     * Copies the settings
+     *
+     * @param other Target
+     */
+    void copyTo(ConvergenceControl other) {
+        other.maxIterations = maxIterations;
+        other.centerTolerance = centerTolerance;
+        other.objectiveTolerance = objectiveTolerance;
+        other.relaxation = relaxation;
+    }
+
+    /**
+     * Starts a pass
+     *
+     * @param length Length of the row-major cluster centers
+     */
+    void start(int length) {
+        if (viNext == null || viNext.length != length) {
+            viNext = new double[length];
+            stepBefore = new double[length];
+        }
+        Arrays.fill(stepBefore, 0.0);
+        iteration = 0;
+        omega = relaxation;
+        objectiveBefore = Double.NaN;
+        shift = 0.0;
+    }
+
+    /**
+     * Step 4: Termination or repetition, without the center shift
+     *
+     * @param statistics Sums of the new partition matrix
+     * @param delta      Euclidean distance to the previous partition matrix
+     * @param e          Termination threshold
+     * @return <code>true</code> to repeat
+     */
+    boolean repeat(ClusterStatistics statistics, double delta, double e) {
+        iteration++;
+        double objective = statistics.objective;
+        boolean repeat = delta >= e;
+        if (maxIterations > 0 && iteration >= maxIterations) repeat = false;
+        if (stopped) repeat = false;
+        if (objectiveTolerance > 0.0 && Math.abs(objectiveBefore - objective) <= objectiveTolerance * Math.abs(objective))
+            repeat = false;
+        objectiveBefore = objective;
+        shift = 0.0;
+        return repeat;
+    }
+
+    /**
+     * Step 2: Determination of the cluster centers of the next iteration,
+     * unless the center shift is below its tolerance
+     *
+     * @param statistics Sums of the new partition matrix
+     * @param vi         Cluster centers, row-major; updated if repeated
+     * @return <code>true</code> to repeat
+     */
+    boolean update(ClusterStatistics statistics, double[] vi) {
+        System.arraycopy(vi, 0, viNext, 0, vi.length);
+        statistics.centers(viNext);
+        double sum = 0.0;
+        double direction = 0.0;
+        for (int j = 0; j < vi.length; j++) {
+            double diff = viNext[j] - vi[j];
+            sum += diff * diff;
+            direction += diff * stepBefore[j];
+            stepBefore[j] = diff;
+        }
+        shift = Math.sqrt(sum);
+        // safeguard: opposite successive steps overshoot the minimum
+        if (direction < 0.0) omega = 1.0;
+        if (centerTolerance > 0.0 && shift < centerTolerance) return false;
+        if (omega == 1.0) {
+            System.arraycopy(viNext, 0, vi, 0, vi.length);
+        } else {
+            for (int j = 0; j < vi.length; j++) vi[j] += omega * (viNext[j] - vi[j]);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the length of the last cluster center step
+     *
+     * @return Shift, 0 if the iteration terminated before step 2
+     */
+    double shift() {
+        return shift;
+    }
+}
@@ -1,10 +1,13 @@
 package de.clusterfreak.ClusterCore;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Internal Core Self Tests
  *
  * @author Thomas Heym
- * @version 0.1.6 (2024-12-07)
+ * @version 0.1.7 (2026-10-16)
  */
 
 public class CoreTest {
@@ -35,11 +38,21 @@ public class CoreTest {
         return test;
     }
 
+    private static boolean testEqual(double[][] vi, double[][] reference) {
+        for (int k = 0; k < vi.length; k++) {
+            for (int j = 0; j < vi[k].length; j++) {
+                if (Math.abs(vi[k][j] - reference[k][j]) > 1.0e-12) return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * CoreTest.main
      * @param args n/a
+     * @throws Exception if a shard failed
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
         System.out.println("\nClusterCore 1.2.0\n");
 
         int cluster = 2;
@@ -67,6 +80,51 @@ public class CoreTest {
         else
             System.out.println("error");
 
+        // single precision against the same references
+        FeatureMatrix floatObject = FeatureMatrix.singlePrecision(FeatureMatrix.of(object));
+        fcm = new FuzzyCMeans(floatObject, cluster);
+        vi = fcm.determineClusterCenters(true, false);
+        System.out.print("FCM Test (float): ");
+        if (testReference(vi, fcmReference))
+            System.out.println("ok");
+        else
+            System.out.println("error");
+
+        pcm = new PossibilisticCMeans(floatObject, cluster, 1);
+        vi = pcm.determineClusterCenters(true, false);
+        System.out.print("PCM Test (float, 1st pass): ");
+        if (testReference(vi, pcm1Reference))
+            System.out.println("ok");
+        else
+            System.out.println("error");
+
+        pcm = new PossibilisticCMeans(floatObject, cluster, 2);
+        vi = pcm.determineClusterCenters(true, false);
+        System.out.print("PCM Test (float, 2nd pass): ");
+        if (testReference(vi, pcm2Reference))
+            System.out.println("ok");
+        else
+            System.out.println("error");
+
+        // two shards reproduce the run over all objects
+        double[][] initialVi = {object[0], object[6]};
+        List<Shard> shards = List.of(new Shard(FeatureMatrix.of(Arrays.copyOfRange(object, 0, 4)), cluster),
+                new Shard(FeatureMatrix.of(Arrays.copyOfRange(object, 4, object.length)), cluster));
+        ShardedCMeans sharded = new ShardedCMeans(shards, cluster);
+        vi = sharded.fuzzyCMeans(initialVi);
+        System.out.print("FCM Test (shards): ");
+        if (testEqual(vi, new FuzzyCMeans(object, cluster).determineClusterCenters(initialVi, false)))
+            System.out.println("ok");
+        else
+            System.out.println("error");
+
+        vi = sharded.possibilisticCMeans(initialVi, 2);
+        System.out.print("PCM Test (shards, 2nd pass): ");
+        if (testEqual(vi, new PossibilisticCMeans(object, cluster, 2).determineClusterCenters(initialVi, null, false)))
+            System.out.println("ok");
+        else
+            System.out.println("error");
+
         long timeEnd = System.currentTimeMillis() - timeBegin;
         System.out.println(timeEnd + " ms");
         System.out.println(System.getProperty("os.name") + " " + System.getProperty("os.version") + " " + System.getProperty("os.arch"));
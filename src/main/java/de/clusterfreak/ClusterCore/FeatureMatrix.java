@@ -0,0 +1,345 @@
+package de.clusterfreak.ClusterCore;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+
+/**
+ * Dense feature matrix
+ * <p>
+ * Objects with an arbitrary number of dimensions, stored row-major in one
+ * contiguous array. Object i occupies the elements
+ * <code>i * dimensions</code> to <code>i * dimensions + dimensions - 1</code>.
+ * <p>
+ * A feature matrix is either held in a heap array or mapped from a
+ * {@link PointFile}. Mapped coordinates stay off-heap; the parallel tasks read
+ * them one object at a time into a buffer of their own, so an iteration over
+ * mapped objects does not allocate in proportion to the objects. The number
+ * of mapped coordinates may exceed the size of an array.
+ * <p>
+ * Coordinates held as floats (a heap float array,
+ * {@link #singlePrecision(FeatureMatrix)}, or a float point file) select the
+ * single precision computation of FCM and PCM: float partition matrices and
+ * float kernels, see {@link FuzzyCMeans}. Every other estimator and mode reads
+ * them widened to double per object.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+public class FeatureMatrix {
+    /**
+     * Coordinates, row-major; <code>null</code> if mapped or held as floats
+     */
+    private final double[] data;
+    /**
+     * Coordinates held as floats, row-major; <code>null</code> if mapped or
+     * doubles
+     */
+    private final float[] floats;
+    /**
+     * Mapped or float coordinates, row-major; <code>null</code> if held in a
+     * heap array of doubles
+     */
+    private final MemorySegment segment;
+    /**
+     * Layout of one mapped coordinate (double or float)
+     */
+    private final ValueLayout layout;
+    /**
+     * Number of objects
+     */
+    private final int count;
+    /**
+     * Number of dimensions per object
+     */
+    private final int dimensions;
+
+    /**
+     * Generates a feature matrix from row-major data
+     *
+     * @param data       Coordinates, row-major; the array is used directly, not copied
+     * @param dimensions Number of dimensions per object
+     */
+    public FeatureMatrix(double[] data, int dimensions) {
+        if (dimensions < 1 || data.length % dimensions != 0)
+            throw new IllegalArgumentException("data length " + data.length + " is not a multiple of " + dimensions);
+        this.data = data;
+        this.floats = null;
+        this.segment = null;
+        this.layout = ValueLayout.JAVA_DOUBLE;
+        this.dimensions = dimensions;
+        this.count = data.length / dimensions;
+    }
+
+    /**
+     * Generates a feature matrix on mapped coordinates
+     *
+     * @param segment    Coordinates, row-major
+     * @param layout     Layout of one coordinate, {@link ValueLayout.OfDouble} or
+     *                   {@link ValueLayout.OfFloat}
+     * @param count      Number of objects
+     * @param dimensions Number of dimensions per object
+     */
+    FeatureMatrix(MemorySegment segment, ValueLayout layout, int count, int dimensions) {
+        this.data = null;
+        this.floats = null;
+        this.segment = segment;
+        this.layout = layout;
+        this.count = count;
+        this.dimensions = dimensions;
+    }
+
+    /**
+     * Generates a single precision feature matrix from row-major data
+     *
+     * @param data       Coordinates, row-major; the array is used directly, not copied
+     * @param dimensions Number of dimensions per object
+     */
+    public FeatureMatrix(float[] data, int dimensions) {
+        if (dimensions < 1 || data.length % dimensions != 0)
+            throw new IllegalArgumentException("data length " + data.length + " is not a multiple of " + dimensions);
+        this.data = null;
+        this.floats = data;
+        this.segment = MemorySegment.ofArray(data);
+        this.layout = ValueLayout.JAVA_FLOAT;
+        this.dimensions = dimensions;
+        this.count = data.length / dimensions;
+    }
+
+    /**
+     * Generates an empty feature matrix
+     *
+     * @param count      Number of objects
+     * @param dimensions Number of dimensions per object
+     */
+    public FeatureMatrix(int count, int dimensions) {
+        this(new double[ClusterMath.size(count, dimensions)], dimensions);
+    }
+
+    /**
+     * Generates a feature matrix from one array per object
+     *
+     * @param object Objects; all rows must have the same length
+     * @return Feature matrix
+     */
+    public static FeatureMatrix of(double[][] object) {
+        int dimensions = object.length > 0 ? object[0].length : 1;
+        return new FeatureMatrix(ClusterMath.flatten(object, dimensions), dimensions);
+    }
+
+    /**
+     * Generates a single precision feature matrix from one array per object
+     *
+     * @param object Objects; all rows must have the same length
+     * @return Feature matrix
+     */
+    public static FeatureMatrix of(float[][] object) {
+        int dimensions = object.length > 0 ? object[0].length : 1;
+        float[] data = new float[ClusterMath.size(object.length, dimensions)];
+        for (int i = 0; i < object.length; i++) {
+            if (object[i].length != dimensions)
+                throw new IllegalArgumentException("row " + i + " has " + object[i].length + " columns, expected " + dimensions);
+            System.arraycopy(object[i], 0, data, i * dimensions, dimensions);
+        }
+        return new FeatureMatrix(data, dimensions);
+    }
+
+    /**
+     * Copies objects (also mapped ones) into a single precision feature
+     * matrix, rounding the coordinates to float
+     *
+     * @param object Objects
+     * @return Feature matrix
+     */
+    public static FeatureMatrix singlePrecision(FeatureMatrix object) {
+        int count = object.getCount();
+        int dimensions = object.getDimensions();
+        float[] data = new float[ClusterMath.size(count, dimensions)];
+        double[] buffer = object.rowBuffer();
+        for (int i = 0; i < count; i++) {
+            double[] x = object.row(i, buffer);
+            int xo = object.rowOffset(i);
+            for (int j = 0; j < dimensions; j++) data[i * dimensions + j] = (float) x[xo + j];
+        }
+        return new FeatureMatrix(data, dimensions);
+    }
+
+    /**
+     * Returns the number of objects
+     *
+     * @return count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of dimensions per object
+     *
+     * @return dimensions
+     */
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Returns whether the coordinates are mapped instead of held in a heap
+     * array
+     *
+     * @return <code>true</code> if mapped
+     */
+    public boolean isMapped() {
+        return segment != null && segment.isNative();
+    }
+
+    /**
+     * Returns whether the coordinates are stored as floats
+     *
+     * @return <code>true</code> if single precision
+     */
+    public boolean isSinglePrecision() {
+        return layout instanceof ValueLayout.OfFloat;
+    }
+
+    /**
+     * Returns the row-major coordinates (not a copy)
+     *
+     * @return data
+     * @throws IllegalStateException if the coordinates are mapped or floats
+     */
+    public double[] getData() {
+        if (data == null) throw new IllegalStateException("feature matrix has no heap array of doubles");
+        return data;
+    }
+
+    /**
+     * Returns a single coordinate
+     *
+     * @param i Object
+     * @param j Dimension
+     * @return Coordinate
+     */
+    public double get(int i, int j) {
+        if (data != null) return data[i * dimensions + j];
+        if (floats != null) return floats[i * dimensions + j];
+        long index = (long) i * dimensions + j;
+        if (layout instanceof ValueLayout.OfFloat floatLayout) return segment.getAtIndex(floatLayout, index);
+        return segment.getAtIndex((ValueLayout.OfDouble) layout, index);
+    }
+
+    /**
+     * Sets a single coordinate
+     *
+     * @param i     Object
+     * @param j     Dimension
+     * @param value Coordinate
+     * @throws IllegalStateException if the coordinates are mapped
+     */
+    public void set(int i, int j, double value) {
+        if (floats != null) {
+            floats[i * dimensions + j] = (float) value;
+            return;
+        }
+        getData()[i * dimensions + j] = value;
+    }
+
+    /**
+     * Returns a buffer for {@link #row(int, double[])}
+     *
+     * @return Buffer for one object, <code>null</code> if the coordinates are
+     * held in a heap array of doubles
+     */
+    double[] rowBuffer() {
+        return data != null ? null : new double[dimensions];
+    }
+
+    /**
+     * Returns object i in a row-major array: the heap array itself, or the
+     * buffer filled with the mapped or float object. The object starts at
+     * {@link #rowOffset(int)}; the buffer is reused for the next object, so
+     * mapped coordinates are read without allocation.
+     *
+     * @param i      Object
+     * @param buffer Buffer of {@link #rowBuffer()}
+     * @return Coordinates
+     */
+    double[] row(int i, double[] buffer) {
+        if (data != null) return data;
+        if (floats != null) {
+            for (int j = 0; j < dimensions; j++) buffer[j] = floats[i * dimensions + j];
+            return buffer;
+        }
+        long index = (long) i * dimensions;
+        if (layout instanceof ValueLayout.OfFloat floatLayout) {
+            for (int j = 0; j < dimensions; j++) buffer[j] = segment.getAtIndex(floatLayout, index + j);
+        } else {
+            MemorySegment.copy(segment, layout, index * Double.BYTES, buffer, 0, dimensions);
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns the start of object i in the array of {@link #row(int, double[])}
+     *
+     * @param i Object
+     * @return Offset
+     */
+    int rowOffset(int i) {
+        return data != null ? i * dimensions : 0;
+    }
+
+    /**
+     * Returns a buffer for {@link #floatRow(int, float[])}
+     *
+     * @return Buffer for one object, <code>null</code> if the coordinates are
+     * held in a heap array of floats
+     */
+    float[] floatRowBuffer() {
+        return floats != null ? null : new float[dimensions];
+    }
+
+    /**
+     * Returns object i as floats: the heap float array itself, or the buffer
+     * filled with one copy of the mapped object (doubles rounded). The object
+     * starts at {@link #floatRowOffset(int)}.
+     *
+     * @param i      Object
+     * @param buffer Buffer of {@link #floatRowBuffer()}
+     * @return Coordinates
+     */
+    float[] floatRow(int i, float[] buffer) {
+        if (floats != null) return floats;
+        long index = (long) i * dimensions;
+        if (layout instanceof ValueLayout.OfFloat) {
+            MemorySegment.copy(segment, layout, index * Float.BYTES, buffer, 0, dimensions);
+        } else {
+            for (int j = 0; j < dimensions; j++) buffer[j] = (float) get(i, j);
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns the start of object i in the array of
+     * {@link #floatRow(int, float[])}
+     *
+     * @param i Object
+     * @return Offset
+     */
+    int floatRowOffset(int i) {
+        return floats != null ? i * dimensions : 0;
+    }
+
+    /**
+     * Returns the objects as one array per object
+     *
+     * @return Objects
+     */
+    public double[][] toArray() {
+        double[][] rows = new double[count][];
+        double[] buffer = rowBuffer();
+        for (int i = 0; i < count; i++) {
+            rows[i] = Arrays.copyOfRange(row(i, buffer), rowOffset(i), rowOffset(i) + dimensions);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,270 @@
+package de.clusterfreak.ClusterCore;
+
+/**
+ * Fuzzifier m and the powers of the innermost loops
+ * <p>
+ * FCM and PCM need three powers per membership value:
+ *
+ * <pre>
+ * FCM weight       (1/dik)^(1/(m-1))  = (dik&sup2;)^(-1/(2(m-1)))
+ * PCM membership   1 / (1 + (dik&sup2;/ni)^(1/(m-1)))
+ * Center weight    mik^m
+ * </PRE>
+ * <p>
+ * Each power is resolved once per fuzzifier to the fastest exact form: an
+ * integer exponent to multiplications (m = 2, 3, any integer m for mik^m; m =
+ * 1 + 1/k for the PCM membership), an exponent 1/2^j to j square roots (m =
+ * 2, 3, 5, 9 for the FCM weight; m = 3, 5 for the PCM membership), anything
+ * else to {@link Math#pow(double, double)} with the precalculated exponent.
+ * m = 2 uses the {@link Kernel} loops unchanged.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+final class Fuzzifier {
+    /**
+     * Default fuzzifier m = 2
+     */
+    static final Fuzzifier DEFAULT = new Fuzzifier(2);
+    /**
+     * Fuzzifier
+     */
+    final double m;
+    /**
+     * <code>true</code> for m = 2, the {@link Kernel} loops
+     */
+    final boolean standard;
+    /**
+     * mik^m
+     */
+    private final Power center;
+    /**
+     * (dik&sup2;)^(1/(2(m-1))), the inverse FCM weight
+     */
+    private final Power fuzzy;
+    /**
+     * (dik&sup2;/ni)^(1/(m-1))
+     */
+    private final Power possibilistic;
+
+    /**
+     * Generates a fuzzifier
+     *
+     * @param m Fuzzifier, greater than 1
+     */
+    Fuzzifier(double m) {
+        if (!(m > 1.0) || Double.isInfinite(m)) throw new IllegalArgumentException("m must be greater than 1");
+        this.m = m;
+        this.standard = m == 2.0;
+        this.center = new Power(m);
+        this.fuzzy = new Power(1 / (2 * (m - 1)));
+        this.possibilistic = new Power(1 / (m - 1));
+    }
+
+    /**
+     * Returns the fuzzifier for m, the shared default for m = 2
+     *
+     * @param m Fuzzifier, greater than 1
+     * @return Fuzzifier
+     */
+    static Fuzzifier of(double m) {
+        return m == 2.0 ? DEFAULT : new Fuzzifier(m);
+    }
+
+    /**
+     * mik^m
+     *
+     * @param u Membership value
+     * @return Weight of the object in the cluster center
+     */
+    double power(double u) {
+        return standard ? u * u : center.apply(u);
+    }
+
+    /**
+     * mik^m in single precision
+     *
+     * @param u Membership value
+     * @return Weight of the object in the cluster center
+     */
+    float power(float u) {
+        return standard ? u * u : (float) center.apply(u);
+    }
+
+    /**
+     * FCM weights (1/dik)^(1/(m-1)) from squared distances
+     *
+     * @param d2      Squared distance per cluster
+     * @param w       Output, weight per cluster
+     * @param cluster Number of clusters
+     * @return Sum of the weights
+     */
+    double fuzzyWeights(double[] d2, double[] w, int cluster) {
+        if (standard) return Kernel.DEFAULT.fuzzyWeights(d2, w, cluster);
+        double sum = 0.0;
+        for (int k = 0; k < cluster; k++) {
+            w[k] = fuzzyWeight(d2[k]);
+            sum += w[k];
+        }
+        return sum;
+    }
+
+    /**
+     * FCM weights of float squared distances, see
+     * {@link #fuzzyWeights(double[], double[], int)}
+     *
+     * @param d2      Squared distance per cluster
+     * @param w       Output, weight per cluster
+     * @param cluster Number of clusters
+     * @return Sum of the weights
+     */
+    float fuzzyWeights(float[] d2, float[] w, int cluster) {
+        if (standard) return Kernel.DEFAULT.fuzzyWeights(d2, w, cluster);
+        float sum = 0.0f;
+        for (int k = 0; k < cluster; k++) {
+            w[k] = (float) fuzzyWeight(d2[k]);
+            sum += w[k];
+        }
+        return sum;
+    }
+
+    /**
+     * FCM weight of one squared distance
+     *
+     * @param d2 Squared distance
+     * @return (1/dik)^(1/(m-1))
+     */
+    double fuzzyWeight(double d2) {
+        return 1 / (standard ? Math.sqrt(d2) : fuzzy.apply(d2));
+    }
+
+    /**
+     * PCM memberships 1 / (1 + (dik&sup2; / ni)^(1/(m-1))) from squared
+     * distances
+     *
+     * @param d2      Squared distance per cluster
+     * @param ni      ni per cluster
+     * @param u       Output, membership per cluster
+     * @param cluster Number of clusters
+     */
+    void possibilisticMemberships(double[] d2, double[] ni, double[] u, int cluster) {
+        if (standard) {
+            Kernel.DEFAULT.possibilisticMemberships(d2, ni, u, cluster);
+            return;
+        }
+        for (int k = 0; k < cluster; k++) u[k] = 1 / (1 + possibilistic.apply(d2[k] / ni[k]));
+    }
+
+    /**
+     * PCM memberships of float squared distances, see
+     * {@link #possibilisticMemberships(double[], double[], double[], int)}
+     *
+     * @param d2      Squared distance per cluster
+     * @param ni      ni per cluster
+     * @param u       Output, membership per cluster
+     * @param cluster Number of clusters
+     */
+    void possibilisticMemberships(float[] d2, float[] ni, float[] u, int cluster) {
+        if (standard) {
+            Kernel.DEFAULT.possibilisticMemberships(d2, ni, u, cluster);
+            return;
+        }
+        for (int k = 0; k < cluster; k++) u[k] = (float) possibilisticMembership(d2[k], ni[k]);
+    }
+
+    /**
+     * PCM membership of one squared distance
+     *
+     * @param d2 Squared distance
+     * @param ni ni of the cluster
+     * @return Membership value
+     */
+    double possibilisticMembership(double d2, double ni) {
+        return 1 / (1 + (standard ? d2 / ni : possibilistic.apply(d2 / ni)));
+    }
+
+    /**
+     * Squared distance beyond which the PCM membership is below a threshold,
+     * ni * (1 / threshold - 1)^(m-1)
+     *
+     * @param ni        ni of the cluster
+     * @param threshold Membership threshold in (0, 1)
+     * @return Squared radius
+     */
+    double radius2(double ni, double threshold) {
+        return ni * (standard ? 1 / threshold - 1 : Math.pow(1 / threshold - 1, m - 1));
+    }
+
+    /**
+     * x^p, resolved once to multiplications, square roots or Math.pow
+     */
+    private static final class Power {
+        /**
+         * Integer exponent
+         */
+        private static final int INTEGER = 0;
+        /**
+         * Exponent 1/2^j
+         */
+        private static final int ROOT = 1;
+        /**
+         * Any other exponent
+         */
+        private static final int GENERAL = 2;
+        /**
+         * Exponent
+         */
+        private final double p;
+        /**
+         * INTEGER, ROOT or GENERAL
+         */
+        private final int kind;
+        /**
+         * Integer exponent or number of square roots
+         */
+        private final int n;
+
+        Power(double p) {
+            this.p = p;
+            if (p == Math.rint(p) && p <= 64) {
+                kind = INTEGER;
+                n = (int) p;
+                return;
+            }
+            int roots = 0;
+            double q = p;
+            while (q < 1 && roots < 8) {
+                q *= 2;
+                roots++;
+            }
+            if (q == 1.0) {
+                kind = ROOT;
+                n = roots;
+            } else {
+                kind = GENERAL;
+                n = 0;
+            }
+        }
+
+        double apply(double x) {
+            switch (kind) {
+                case INTEGER:
+                    if (n == 2) return x * x;
+                    if (n == 3) return x * x * x;
+                    double r = 1.0;
+                    double b = x;
+                    for (int e = n; e > 0; e >>= 1) {
+                        if ((e & 1) != 0) r *= b;
+                        b *= b;
+                    }
+                    return r;
+                case ROOT:
+                    double s = x;
+                    for (int j = 0; j < n; j++) s = Math.sqrt(s);
+                    return s;
+                default:
+                    return Math.pow(x, p);
+            }
+        }
+    }
+}
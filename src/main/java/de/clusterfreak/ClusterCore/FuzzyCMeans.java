@@ -1,9 +1,9 @@
 package de.clusterfreak.ClusterCore;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Fuzzy-C-Means (FCM)
@@ -17,8 +17,12 @@ import java.util.concurrent.RecursiveTask;
  * Step 4: Termination or repetition
  * Step 5: optional - Repeat calculation (steps 2 to 4)
  * </PRE>
+ * <p>
+ * All results are held per object, so independent FCM-Objects may run
+ * concurrently (see {@link ClusterBatch}). A single FCM-Object must not be
+ * used by several threads at the same time.
  *
- * @version 1.7.0 (2024-12-07)
+ * @version 1.8.0 (2026-10-16)
  * @author Thomas Heym
  */
 public class FuzzyCMeans {
@@ -27,9 +31,9 @@ public class FuzzyCMeans {
      */
     private final int cluster;
     /**
-     * Euclidean distance norm, exponent, initial value 2
+     * Fuzzifier m, initial value 2
      */
-    private final static int m = 2;
+    private final Fuzzifier m;
     /**
      * Termination threshold, initial value 1.0e-7
      */
@@ -37,20 +41,80 @@ public class FuzzyCMeans {
     /**
      * Each Object represents 1 cluster vi
      */
-    private final double[][] object;
+    private final FeatureMatrix object;
+    /**
+     * Cluster centers vi, row-major
+     */
+    private final double[] vi;
+    /**
+     * Complete search path, if recorded
+     */
+    private PathRecorder path;
+    /**
+     * Maximum number of iterations of the search path, 0 = unbounded
+     */
+    private int pathCapacity;
+    /**
+     * Listener for the metrics of every iteration, or <code>null</code>
+     */
+    private IterationListener listener;
+    /**
+     * Metrics passed to the listener, reused
+     */
+    private final IterationMetrics metrics = new IterationMetrics();
+    /**
+     * Additional termination criteria and relaxation, copied by PCM for its
+     * initial FCM pass
+     */
+    final ConvergenceControl control = new ConvergenceControl();
     /**
-     * Cluster centers vi
+     * Pool for the parallel calculation steps, <code>null</code> uses the
+     * common pool
      */
-    private final double[][] vi;
+    private ForkJoinPool pool;
     /**
-     * Complete search path
+     * Minimum number of objects per parallel task, initial value 1024
      */
-    private double[][] viPath;
+    private int grainSize = 1024;
     /**
      * Partition matrix (Membership values of the k-th object to the i-th
-     * cluster)
+     * cluster), row-major
+     */
+    private double[] mik;
+    /**
+     * Partition matrix in single precision, row-major, if the objects are
+     * stored as floats (see {@link SinglePrecision})
      */
-    private static double[][] getMik;
+    private float[] mikSingle;
+    /**
+     * Sparse partition matrix, if topK is set
+     */
+    private SparsePartition sparse;
+    /**
+     * Membership values kept per object, 0 keeps the dense partition matrix
+     */
+    private int topK;
+    /**
+     * Seeding of the initial cluster centers, initial value NONE
+     */
+    private Seeding.Method seeding = Seeding.Method.NONE;
+    /**
+     * Calculate the partition entropy in step 3
+     */
+    private boolean validityIndices;
+    /**
+     * Sums of the last step 3, for the validity indices
+     */
+    private ClusterStatistics statistics;
+    /**
+     * Weight per object, <code>null</code> weights all objects with 1
+     */
+    private double[] weights;
+    /**
+     * Tolerance of the distance bounds, 0 = all objects calculated in every
+     * step 3
+     */
+    private double boundTolerance;
 
     /**
      * Generates FCM-Object from a set of Points
@@ -59,9 +123,26 @@ public class FuzzyCMeans {
      * @param clusterCount Number of clusters
      */
     public FuzzyCMeans(double[][] object, int clusterCount) {
+        this(FeatureMatrix.of(object), clusterCount);
+    }
+
+    /**
+     * Generates FCM-Object from a feature matrix with any number of dimensions
+     *
+     * @param object       Objects
+     * @param clusterCount Number of clusters
+     */
+    public FuzzyCMeans(FeatureMatrix object, int clusterCount) {
+        this(object, clusterCount, Fuzzifier.DEFAULT);
+    }
+
+    private FuzzyCMeans(FeatureMatrix object, int clusterCount, Fuzzifier m) {
+        // mapped objects may exceed an array, the partition matrix may not
+        ClusterMath.size(object.getCount(), clusterCount);
         this.object = object;
         this.cluster = clusterCount;
-        this.vi = new double[cluster][2];
+        this.m = m;
+        this.vi = new double[cluster * object.getDimensions()];
     }
 
     /**
@@ -72,9 +153,34 @@ public class FuzzyCMeans {
      * @param e            Termination threshold, initial value 1.0e-7
      */
     public FuzzyCMeans(double[][] object, int clusterCount, double e) {
-        this.object = object;
-        this.cluster = clusterCount;
-        this.vi = new double[cluster][2];
+        this(FeatureMatrix.of(object), clusterCount, e);
+    }
+
+    /**
+     * Generates FCM-Object from a feature matrix with any number of dimensions
+     *
+     * @param object       Objects
+     * @param clusterCount Number of clusters
+     * @param e            Termination threshold, initial value 1.0e-7
+     */
+    public FuzzyCMeans(FeatureMatrix object, int clusterCount, double e) {
+        this(object, clusterCount);
+        this.e = e;
+    }
+
+    /**
+     * Generates FCM-Object with a fuzzifier m other than 2. m = 2, 3 and other
+     * integers use multiplications and square roots only, other values one
+     * {@link Math#pow(double, double)} per membership value and power.
+     *
+     * @param object       Objects
+     * @param clusterCount Number of clusters
+     * @param e            Termination threshold, initial value 1.0e-7
+     * @param m            Fuzzifier, greater than 1, initial value 2; larger
+     *                     values give softer memberships
+     */
+    public FuzzyCMeans(FeatureMatrix object, int clusterCount, double e, double m) {
+        this(object, clusterCount, Fuzzifier.of(m));
         this.e = e;
     }
 
@@ -88,120 +194,572 @@ public class FuzzyCMeans {
      * are at the end.
      */
     public double[][] determineClusterCenters(boolean random, boolean returnPath) {
-        double euclideanDistance;
-        double[][] mik = new double[object.length][cluster];
-        /*
-         * When false return only the class centers
-         */
-        List<Point2D> viPathRec = new ArrayList<>();
+        control.stopped = false;
+        int n = object.getCount();
+        if (seeding != Seeding.Method.NONE) {
+            // Step 1: Initialization with cluster centers picked from the objects
+            long seed = random ? ThreadLocalRandom.current().nextLong() : 0L;
+            System.arraycopy(Seeding.seed(seeding, object, weights, cluster, seed, pool, grainSize), 0, vi, 0, vi.length);
+            if (topK > 0) return iterate(null, null, new SparsePartition(n, cluster, topK), returnPath);
+            if (single()) return iterate(null, new float[n * cluster], null, returnPath);
+            return iterate(new double[n * cluster], null, null, returnPath);
+        }
+        float[] mikSingle = topK == 0 && single() ? new float[n * cluster] : null;
+        double[] mik = new double[topK > 0 || mikSingle != null ? cluster : n * cluster];
+        SparsePartition sparse = topK > 0 ? new SparsePartition(n, cluster, topK) : null;
         // Step 1: Initialization
-        if (random) {
-            for (int i = 0; i < mik.length; i++) {
-                for (int k = 0; k < cluster; k++) {
-                    mik[i][k] = Math.random();
+        int s = 0;
+        for (int i = 0; i < n; i++) {
+            int ik = sparse != null || mikSingle != null ? 0 : i * cluster;
+            for (int k = 0; k < cluster; k++) {
+                if (random) {
+                    mik[ik + k] = ThreadLocalRandom.current().nextDouble();
+                } else {
+                    mik[ik + k] = (k == s) ? 1 : 0.0;
                 }
             }
+            s = (s + 1) % cluster;
+            if (sparse != null) sparse.set(i, mik, 0);
+            else if (mikSingle != null) for (int k = 0; k < cluster; k++) mikSingle[i * cluster + k] = (float) mik[k];
+        }
+        // Step 2: Determination of the cluster centers
+        if (sparse != null) {
+            invoke(new CenterSumTask(sparse, object, m, weights, 0, n, grainSize)).centers(vi);
+            return iterate(null, null, sparse, returnPath);
+        }
+        if (mikSingle != null) {
+            invoke(new SinglePrecision.CenterSumTask(mikSingle, object, cluster, m, weights, 0, n, grainSize)).centers(vi);
+            return iterate(null, mikSingle, null, returnPath);
+        }
+        invoke(new CenterSumTask(mik, object, cluster, m, weights, 0, n, grainSize)).centers(vi);
+        return iterate(mik, null, null, returnPath);
+    }
+
+    /**
+     * Returns the cluster centers, starting from given cluster centers (warm
+     * start), e.g. the result of a previous run on slightly changed objects
+     *
+     * @param initialVi  Initial cluster centers (clusterCount rows)
+     * @param returnPath Determines whether return the complete search path. Values:
+     *                   <code>true</code>, <code>false</code>
+     * @return Cluster centers and search path (optional); The cluster centers
+     * are at the end.
+     */
+    public double[][] determineClusterCenters(double[][] initialVi, boolean returnPath) {
+        return determineClusterCenters(initialVi, null, returnPath);
+    }
+
+    /**
+     * Returns the cluster centers, starting from given cluster centers and/or a
+     * given partition matrix (warm start). With a partition matrix the first
+     * termination check compares against it, so a run on unchanged objects
+     * ends after one pass.
+     *
+     * @param initialVi  Initial cluster centers (clusterCount rows), or
+     *                   <code>null</code> to determine them from initialMik
+     * @param initialMik Previous partition matrix (one row per object), or
+     *                   <code>null</code>
+     * @param returnPath Determines whether return the complete search path. Values:
+     *                   <code>true</code>, <code>false</code>
+     * @return Cluster centers and search path (optional); The cluster centers
+     * are at the end.
+     */
+    public double[][] determineClusterCenters(double[][] initialVi, double[][] initialMik, boolean returnPath) {
+        control.stopped = false;
+        int n = object.getCount();
+        int d = object.getDimensions();
+        double[] mik = null;
+        float[] mikSingle = null;
+        SparsePartition sparse = null;
+        if (initialMik != null) {
+            if (initialMik.length != n)
+                throw new IllegalArgumentException("initialMik has " + initialMik.length + " rows, expected " + n);
+            if (topK > 0) sparse = SparsePartition.of(initialMik, topK);
+            else if (single()) mikSingle = SinglePrecision.toFloat(ClusterMath.flatten(initialMik, cluster));
+            else mik = ClusterMath.flatten(initialMik, cluster);
+        } else if (topK > 0) {
+            sparse = new SparsePartition(n, cluster, topK);
+        } else if (single()) {
+            mikSingle = new float[n * cluster];
         } else {
-            int s = 0;
-            for (int i = 0; i < mik.length; i++) {
-                for (int k = 0; k < cluster; k++) {
-                    mik[i][k] = (k == s) ? 1 : 0.0;
-                }
-                s = (s + 1) % cluster;
-            }
+            mik = new double[n * cluster];
         }
+        // Step 1: Initialization
+        if (initialVi != null) {
+            if (initialVi.length != cluster)
+                throw new IllegalArgumentException("initialVi has " + initialVi.length + " rows, expected " + cluster);
+            System.arraycopy(ClusterMath.flatten(initialVi, d), 0, vi, 0, vi.length);
+        } else if (initialMik != null) {
+            // Step 2: Determination of the cluster centers
+            if (sparse != null) invoke(new CenterSumTask(sparse, object, m, weights, 0, n, grainSize)).centers(vi);
+            else if (mikSingle != null) invoke(new SinglePrecision.CenterSumTask(mikSingle, object, cluster, m, weights, 0, n, grainSize)).centers(vi);
+            else invoke(new CenterSumTask(mik, object, cluster, m, weights, 0, n, grainSize)).centers(vi);
+        } else {
+            throw new IllegalArgumentException("initialVi or initialMik required");
+        }
+        return iterate(mik, mikSingle, sparse, returnPath);
+    }
 
-        ForkJoinPool pool = new ForkJoinPool();
+    /**
+     * Returns whether the dense partition matrix is calculated in single
+     * precision: objects stored as floats, without topK and distance bounds
+     *
+     * @return <code>true</code> for {@link SinglePrecision}
+     */
+    private boolean single() {
+        return object.isSinglePrecision() && topK == 0 && boundTolerance == 0.0;
+    }
 
+    /**
+     * Steps 3 to 5, starting with the current cluster centers
+     *
+     * @param mik        Partition matrix before the first step 3, or
+     *                   <code>null</code> if sparse or single precision
+     * @param mikSingle  Single precision partition matrix before the first
+     *                   step 3, or <code>null</code>
+     * @param sparse     Sparse partition matrix before the first step 3, or
+     *                   <code>null</code> if dense
+     * @param returnPath Determines whether return the complete search path
+     * @return Cluster centers
+     */
+    private double[][] iterate(double[] mik, float[] mikSingle, SparsePartition sparse, boolean returnPath) {
+        int n = object.getCount();
+        double euclideanDistance;
+        /*
+         * When false return only the class centers
+         */
+        path = returnPath ? new PathRecorder(cluster, object.getDimensions(), pathCapacity) : null;
+        // distance bounds: the partition matrix is updated in place
+        CenterBounds bounds = boundTolerance > 0.0 && mik != null ? new CenterBounds(n, cluster, boundTolerance, m.m) : null;
+        double[] mikNext = mik != null && bounds == null ? new double[mik.length] : null;
+        float[] mikSingleNext = mikSingle != null ? new float[mikSingle.length] : null;
+        SparsePartition sparseNext = sparse != null ? new SparsePartition(n, cluster, sparse.getTopK()) : null;
+        metrics.pass = 0;
+        metrics.iteration = 0;
+        metrics.ni = null;
+        control.start(vi.length);
+        if (bounds != null) bounds.start();
+        boolean repeat;
+        ClusterStatistics statistics;
+        double previous = Double.POSITIVE_INFINITY;
         do {
-            // Step 2: Determination of the cluster centers
-            // --> Step 5: optional - Repeat calculation (steps 2 to 4)
-            for (int k = 0; k < vi.length; k++) {
-                double mikm, mikm0 = 0.0, mikm1 = 0.0, mikms = 0.0;
-                for (int i = 0; i < mik.length; i++) {
-                    mikm = Math.pow(mik[i][k], m);
-                    mikm0 += mikm * object[i][0];
-                    mikm1 += mikm * object[i][1];
-                    mikms += mikm;
-                }
-                vi[k][0] = mikm0 / mikms;
-                vi[k][1] = mikm1 / mikms;
-            }
             // record cluster points
-            if (returnPath) {
-                for (double[] doubles : vi) viPathRec.add(new Point2D(doubles[0], doubles[1]));
-            }
-            // Step 3: Calculate the new partition matrix
-            double[][] mik_before = new double[mik.length][cluster];
-            for (int k = 0; k < vi.length; k++) {
-                for (int i = 0; i < mik.length; i++) {
-                    mik_before[i][k] = mik[i][k];
-                }
+            if (path != null) path.record(vi);
+            long time = listener != null ? System.nanoTime() : 0L;
+            // Step 3: Calculate the new partition matrix, the euclidean
+            // distance to the previous one and the sums of the next step 2
+            if (sparse != null) {
+                statistics = invoke(new SparseUpdateTask(sparse, sparseNext, vi, object, m, weights, validityIndices, 0, n, grainSize));
+                SparsePartition swap = sparse;
+                sparse = sparseNext;
+                sparseNext = swap;
+            } else if (mikSingle != null) {
+                statistics = invoke(new SinglePrecision.UpdateTask(mikSingle, mikSingleNext, vi, object, cluster, m, null, weights, validityIndices, 0, n, grainSize));
+                float[] swap = mikSingle;
+                mikSingle = mikSingleNext;
+                mikSingleNext = swap;
+            } else if (bounds != null) {
+                bounds.advance(vi);
+                statistics = bounds.update(invoke(new CenterBounds.UpdateTask(bounds, mik, vi, object, cluster, m, null, weights, validityIndices, 0, n, grainSize)));
+            } else {
+                statistics = invoke(new UpdatePartitionMatrixTask(mik, mikNext, vi, object, cluster, m, weights, validityIndices, 0, n, grainSize));
+                double[] swap = mik;
+                mik = mikNext;
+                mikNext = swap;
             }
-            pool.invoke(new UpdatePartitionMatrixTask(mik, vi, object, cluster));
-            // calculate euclidean distance
-            euclideanDistance = 0.0;
-            for (int k = 0; k < vi.length; k++) {
-                for (int i = 0; i < mik.length; i++) {
-                    euclideanDistance += Math.pow((mik[i][k] - mik_before[i][k]), 2);
-                }
-            }
-            euclideanDistance = Math.sqrt(euclideanDistance);
+            long membershipTime = listener != null ? System.nanoTime() : 0L;
+            euclideanDistance = Math.sqrt(statistics.change);
             // Step 4: Termination or repetition
-        } while (euclideanDistance >= e);
-        getMik = mik;
-        if (returnPath) {
-            double[][] viPathCut = new double[viPathRec.size()][2];
-            for (int k = 0; k < viPathCut.length; k++) {
-                Point2D cut = viPathRec.get(k);
-                viPathCut[k][0] = cut.x;
-                viPathCut[k][1] = cut.y;
+            double threshold = mikSingle != null ? SinglePrecision.threshold(e, euclideanDistance, previous, statistics) : e;
+            previous = euclideanDistance;
+            repeat = control.repeat(statistics, euclideanDistance, threshold);
+            long convergenceTime = listener != null ? System.nanoTime() : 0L;
+            // --> Step 5: optional - Repeat calculation (steps 2 to 4)
+            if (repeat) repeat = control.update(statistics, vi);
+            if (listener != null) {
+                long centerTime = System.nanoTime();
+                metrics.iteration++;
+                metrics.delta = euclideanDistance;
+                metrics.shift = control.shift();
+                metrics.objective = statistics.objective;
+                metrics.evaluations = bounds != null ? statistics.evaluations : (long) n * cluster;
+                metrics.membershipNanos = membershipTime - time;
+                metrics.convergenceNanos = convergenceTime - membershipTime;
+                metrics.centerNanos = centerTime - convergenceTime;
+                listener.iteration(metrics);
             }
-            setViPath(viPathCut);
-        }
-        return vi;
+        } while (repeat);
+        this.mik = mik;
+        this.mikSingle = mikSingle;
+        this.sparse = sparse;
+        this.statistics = statistics;
+        return getVi();
     }
 
     /**
-     * RecursiveTask for updating the partition matrix
+     * RecursiveTask for updating the partition matrix, split into ranges of
+     * objects
+     * <p>
+     * One pass per object computes the c distances once, derives all
+     * memberships from them and accumulates the squared change and the cluster
+     * center sums of the next iteration. The previous partition matrix is only
+     * read, the new one is written into a second buffer. Weighted objects
+     * contribute their weight times mik^m to the sums; the change is not
+     * weighted. The partition coefficient stays sum mik&sup2; for every m.
      */
-    private static class UpdatePartitionMatrixTask extends RecursiveTask<Void> {
-        private final double[][] mik;
-        private final double[][] vi;
-        private final double[][] object;
+    static class UpdatePartitionMatrixTask extends RecursiveTask<ClusterStatistics> {
+        private final double[] mikBefore;
+        private final double[] mik;
+        private final double[] vi;
+        private final FeatureMatrix object;
         private final int cluster;
+        private final Fuzzifier m;
+        private final double[] weight;
+        private final boolean entropy;
+        private final int from;
+        private final int to;
+        private final int grainSize;
 
-        public UpdatePartitionMatrixTask(double[][] mik, double[][] vi, double[][] object, int cluster) {
+        public UpdatePartitionMatrixTask(double[] mikBefore, double[] mik, double[] vi, FeatureMatrix object, int cluster, Fuzzifier m, double[] weight, boolean entropy, int from, int to, int grainSize) {
+            this.mikBefore = mikBefore;
             this.mik = mik;
             this.vi = vi;
             this.object = object;
             this.cluster = cluster;
+            this.m = m;
+            this.weight = weight;
+            this.entropy = entropy;
+            this.from = from;
+            this.to = to;
+            this.grainSize = grainSize;
+        }
+
+        @Override
+        protected ClusterStatistics compute() {
+            if (to - from > grainSize) {
+                int mid = (from + to) >>> 1;
+                UpdatePartitionMatrixTask left = new UpdatePartitionMatrixTask(mikBefore, mik, vi, object, cluster, m, weight, entropy, from, mid, grainSize);
+                left.fork();
+                ClusterStatistics right = new UpdatePartitionMatrixTask(mikBefore, mik, vi, object, cluster, m, weight, entropy, mid, to, grainSize).compute();
+                return left.join().merge(right);
+            }
+            int d = object.getDimensions();
+            double[] buffer = object.rowBuffer();
+            ClusterStatistics statistics = new ClusterStatistics(cluster, d);
+            Kernel kernel = Kernel.DEFAULT;
+            double[] centers = kernel.centers(vi, cluster, d);
+            double[] d2 = new double[cluster];
+            double[] wik = new double[cluster];
+            for (int i = from; i < to; i++) {
+                double[] x = object.row(i, buffer);
+                int xo = object.rowOffset(i);
+                double wi = weight != null ? weight[i] : 1.0;
+                kernel.squaredDistances(x, xo, centers, cluster, d, d2);
+                // (1/dik)^(1/(m-1))
+                double dik = m.fuzzyWeights(d2, wik, cluster);
+                for (int k = 0; k < cluster; k++) {
+                    int ik = i * cluster + k;
+                    double u = wik[k] / dik;
+                    if (Double.isNaN(u)) u = 1.0;
+                    mik[ik] = u;
+                    double diff = u - mikBefore[ik];
+                    statistics.change += diff * diff;
+                    double um = m.power(u);
+                    statistics.objective += wi * um * d2[k];
+                    statistics.coefficient += wi * u * u;
+                    if (entropy && u > 0.0) statistics.entropy -= wi * u * Math.log(u);
+                    wik[k] = wi * um;
+                }
+                statistics.addAll(wik, x, xo);
+            }
+            return statistics;
+        }
+    }
+
+    /**
+     * RecursiveTask for updating the sparse partition matrix, split into ranges
+     * of objects
+     * <p>
+     * Like {@link UpdatePartitionMatrixTask}, but only the topK largest
+     * memberships per object are kept and contribute to the cluster center
+     * sums.
+     */
+    private static class SparseUpdateTask extends RecursiveTask<ClusterStatistics> {
+        private final SparsePartition mikBefore;
+        private final SparsePartition mik;
+        private final double[] vi;
+        private final FeatureMatrix object;
+        private final Fuzzifier m;
+        private final double[] weight;
+        private final boolean entropy;
+        private final int from;
+        private final int to;
+        private final int grainSize;
+
+        public SparseUpdateTask(SparsePartition mikBefore, SparsePartition mik, double[] vi, FeatureMatrix object, Fuzzifier m, double[] weight, boolean entropy, int from, int to, int grainSize) {
+            this.mikBefore = mikBefore;
+            this.mik = mik;
+            this.vi = vi;
+            this.object = object;
+            this.m = m;
+            this.weight = weight;
+            this.entropy = entropy;
+            this.from = from;
+            this.to = to;
+            this.grainSize = grainSize;
         }
 
         @Override
-        protected Void compute() {
-            for (int k = 0; k < vi.length; k++) {
-                for (int i = 0; i < mik.length; i++) {
-                    double dik = 0.0;
-                    for (double[] doubles : vi) {
-                        dik += Math.pow(1 / (Math.sqrt(Math.pow(object[i][0] - doubles[0], 2) + Math.pow(object[i][1] - doubles[1], 2))), 1 / (m - 1));
-                    }
-                    mik[i][k] = Math.pow(1 / (Math.sqrt(Math.pow(object[i][0] - vi[k][0], 2) + Math.pow(object[i][1] - vi[k][1], 2))), 1 / (m - 1)) / dik;
-                    if (Double.isNaN(mik[i][k])) mik[i][k] = 1.0;
+        protected ClusterStatistics compute() {
+            if (to - from > grainSize) {
+                int mid = (from + to) >>> 1;
+                SparseUpdateTask left = new SparseUpdateTask(mikBefore, mik, vi, object, m, weight, entropy, from, mid, grainSize);
+                left.fork();
+                ClusterStatistics right = new SparseUpdateTask(mikBefore, mik, vi, object, m, weight, entropy, mid, to, grainSize).compute();
+                return left.join().merge(right);
+            }
+            int d = object.getDimensions();
+            double[] buffer = object.rowBuffer();
+            int cluster = mik.getCluster();
+            int topK = mik.getTopK();
+            ClusterStatistics statistics = new ClusterStatistics(cluster, d);
+            Kernel kernel = Kernel.DEFAULT;
+            double[] centers = kernel.centers(vi, cluster, d);
+            double[] d2 = new double[cluster];
+            double[] uik = new double[cluster];
+            double[] before = new double[cluster];
+            for (int i = from; i < to; i++) {
+                double[] x = object.row(i, buffer);
+                int xo = object.rowOffset(i);
+                double wi = weight != null ? weight[i] : 1.0;
+                kernel.squaredDistances(x, xo, centers, cluster, d, d2);
+                // (1/dik)^(1/(m-1))
+                double dik = m.fuzzyWeights(d2, uik, cluster);
+                for (int k = 0; k < cluster; k++) {
+                    uik[k] /= dik;
+                    if (Double.isNaN(uik[k])) uik[k] = 1.0;
+                }
+                mik.set(i, uik, 0);
+                // squared change over the kept values of both matrices
+                int base = i * topK;
+                for (int j = base; j < base + topK; j++) before[mikBefore.index[j]] = mikBefore.value[j];
+                for (int j = base; j < base + topK; j++) {
+                    int k = mik.index[j];
+                    double u = mik.value[j];
+                    double diff = u - before[k];
+                    statistics.change += diff * diff;
+                    before[k] = 0.0;
+                    double um = m.power(u);
+                    statistics.objective += wi * um * d2[k];
+                    statistics.coefficient += wi * u * u;
+                    if (entropy && u > 0.0) statistics.entropy -= wi * u * Math.log(u);
+                    statistics.add(k, wi * um, x, xo);
+                }
+                for (int j = base; j < base + topK; j++) {
+                    int k = mikBefore.index[j];
+                    statistics.change += before[k] * before[k];
+                    before[k] = 0.0;
                 }
             }
-            return null;
+            return statistics;
         }
     }
 
+    /**
+     * Runs a parallel calculation step. Objects that fit into one task are
+     * calculated in the calling thread.
+     *
+     * @param task Task over all objects
+     * @param <T>  Result type
+     * @return Result of the task
+     */
+    private <T> T invoke(ForkJoinTask<T> task) {
+        if (object.getCount() <= grainSize) return task.invoke();
+        return (pool != null ? pool : ForkJoinPool.commonPool()).invoke(task);
+    }
+
+    /**
+     * Set the pool for the parallel calculation steps. The pool is not shut
+     * down by this class.
+     *
+     * @param pool Pool, <code>null</code> uses the common pool
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Set the minimum number of objects per parallel task
+     *
+     * @param grainSize Objects per task, initial value 1024
+     */
+    public void setGrainSize(int grainSize) {
+        if (grainSize < 1) throw new IllegalArgumentException("grainSize must be positive");
+        this.grainSize = grainSize;
+    }
+
     /**
      * Returns the partition matrix (Membership values of the k-th object to the
-     * i-th cluster) The method is also called from Pos±sibilisticCMeans.
+     * i-th cluster)
      *
      * @return Partition matrix
      */
     public double[][] getMik() {
-        return getMik;
+        if (sparse != null) return sparse.toArray();
+        if (mikSingle != null) return ClusterMath.toRows(SinglePrecision.toDouble(mikSingle), object.getCount(), cluster);
+        return mik == null ? null : ClusterMath.toRows(mik, object.getCount(), cluster);
+    }
+
+    /**
+     * Returns the sparse partition matrix, if topK is set
+     *
+     * @return Sparse partition matrix, or <code>null</code>
+     */
+    public SparsePartition getSparseMik() {
+        return sparse;
+    }
+
+    /**
+     * Keep only the topK largest membership values per object (sparse
+     * partition matrix, see {@link #getSparseMik()}). Only these contribute to
+     * the cluster centers, which cuts memory and center update work by about
+     * c / topK.
+     *
+     * @param topK Membership values kept per object, 0 keeps the dense
+     *             partition matrix (initial value)
+     */
+    public void setTopK(int topK) {
+        if (topK < 0 || topK > cluster) throw new IllegalArgumentException("topK must be in [0, " + cluster + "]");
+        this.topK = topK;
+    }
+
+    /**
+     * Set the seeding of the initial cluster centers. With a seeding method
+     * {@link #determineClusterCenters(boolean, boolean)} starts from cluster
+     * centers picked from the objects instead of a partition matrix; random
+     * selects a random seed, otherwise the seed is fixed.
+     *
+     * @param seeding Seeding method, NONE (initial value) for the random or
+     *                round-robin partition matrix
+     */
+    public void setSeeding(Seeding.Method seeding) {
+        if (seeding == null) throw new IllegalArgumentException("seeding must not be null");
+        this.seeding = seeding;
+    }
+
+    /**
+     * Set whether step 3 also calculates the partition entropy (one logarithm
+     * per membership value) for {@link #getValidity()}; partition coefficient
+     * and Xie-Beni index are always available
+     *
+     * @param validityIndices <code>true</code> to calculate the partition
+     *                        entropy, initial value <code>false</code>
+     */
+    public void setValidityIndices(boolean validityIndices) {
+        this.validityIndices = validityIndices;
+    }
+
+    /**
+     * Set the tolerance of the distance bounds (dense partition matrix only).
+     * Step 3 keeps the membership values of an object while the sum of the
+     * largest center shifts since the object was last calculated is at most
+     * tolerance times the distance of the object to its nearest center at that
+     * time (triangle inequality); the cluster center sums are updated by the
+     * changes of the objects calculated again. Late iterations, where most
+     * centers barely move, calculate only a small part of the objects (see
+     * {@link IterationMetrics#getEvaluations()}). A kept membership value
+     * differs from the exact one by at most about 2 * tolerance / (m - 1)
+     * relative.
+     * <p>
+     * The change of the partition matrix in step 4 covers all objects: the
+     * objects calculated again with their exact change, the skipped objects
+     * with an upper bound of their change from the largest center shift, so
+     * the threshold e keeps its meaning. A run stops once no object is
+     * calculated again and the centers stand still; the kept membership
+     * values then limit the accuracy of the result, not the termination.
+     *
+     * @param boundTolerance Tolerance, e.g. 1.0e-3; 0 = all objects
+     *                       calculated in every iteration (initial value)
+     */
+    public void setBoundTolerance(double boundTolerance) {
+        if (!(boundTolerance >= 0.0 && boundTolerance < 1.0))
+            throw new IllegalArgumentException("boundTolerance must be in [0, 1)");
+        this.boundTolerance = boundTolerance;
+    }
+
+    /**
+     * Set a weight per object, e.g. the number of objects represented by a
+     * coreset object ({@link GridCoreset}). An object with weight w counts
+     * like w copies of it in the cluster centers, the objective function and
+     * the validity indices.
+     *
+     * @param weights Weight per object (not copied), <code>null</code> weights
+     *                all objects with 1 (initial value)
+     */
+    public void setWeights(double[] weights) {
+        checkWeights(weights, object.getCount());
+        this.weights = weights;
+    }
+
+    /**
+     * Checks a weight per object: one finite, non-negative value per object
+     *
+     * @param weights Weights, or <code>null</code>
+     * @param count   Number of objects
+     */
+    static void checkWeights(double[] weights, int count) {
+        if (weights == null) return;
+        if (weights.length != count)
+            throw new IllegalArgumentException("weights has " + weights.length + " values, expected " + count);
+        for (double w : weights) {
+            if (!(w >= 0.0) || w == Double.POSITIVE_INFINITY)
+                throw new IllegalArgumentException("weights must be finite and not negative");
+        }
+    }
+
+    /**
+     * Returns the sum of the weights
+     *
+     * @param weights Weights
+     * @return Sum
+     */
+    static double total(double[] weights) {
+        double total = 0.0;
+        for (double w : weights) total += w;
+        return total;
+    }
+
+    /**
+     * Returns the validity indices of the last partition matrix, accumulated
+     * in its step 3, and the fitted model
+     *
+     * @return Validity indices, or <code>null</code> before
+     * determineClusterCenters
+     */
+    public ClusterValidity getValidity() {
+        if (statistics == null) return null;
+        double entropy = validityIndices ? statistics.entropy : Double.NaN;
+        return new ClusterValidity(getModel(), weights != null ? total(weights) : object.getCount(), statistics.objective, statistics.coefficient, entropy, vi);
+    }
+
+    /**
+     * Returns the partition matrix, row-major (not a copy)
+     *
+     * @return Partition matrix, or <code>null</code> if sparse or single
+     * precision
+     */
+    double[] partition() {
+        return mik;
+    }
+
+    /**
+     * Returns the single precision partition matrix, row-major (not a copy)
+     *
+     * @return Partition matrix, or <code>null</code> if not calculated in
+     * single precision
+     */
+    float[] partitionSingle() {
+        return mikSingle;
     }
 
     /**
@@ -209,8 +767,10 @@ public class FuzzyCMeans {
      *
      * @param setMik partition matrix
      */
-    public static void setMik(double[][] setMik) {
-        getMik = setMik;
+    public void setMik(double[][] setMik) {
+        mik = setMik == null ? null : ClusterMath.flatten(setMik, cluster);
+        mikSingle = null;
+        sparse = null;
     }
 
     /**
@@ -219,16 +779,108 @@ public class FuzzyCMeans {
      * @return vi
      */
     public double[][] getVi() {
-        return vi;
+        return ClusterMath.toRows(vi, cluster, object.getDimensions());
+    }
+
+    /**
+     * Returns the fitted model for scoring new objects, taken after
+     * determineClusterCenters
+     *
+     * @return FCM model with copies of the cluster centers
+     */
+    public ClusterModel getModel() {
+        return new ClusterModel(vi, cluster, object.getDimensions(), m.m, null);
+    }
+
+    /**
+     * Set the maximum number of iterations; the iteration terminates after it
+     * even if the termination threshold is not reached
+     *
+     * @param maxIterations Iterations, 0 = unlimited (initial value)
+     */
+    public void setMaxIterations(int maxIterations) {
+        control.setMaxIterations(maxIterations);
+    }
+
+    /**
+     * Set the tolerance of the center shift; the iteration terminates when the
+     * cluster centers move less (euclidean distance of all centers)
+     *
+     * @param centerTolerance Tolerance, 0 = not used (initial value)
+     */
+    public void setCenterTolerance(double centerTolerance) {
+        control.setCenterTolerance(centerTolerance);
+    }
+
+    /**
+     * Set the tolerance of the relative change of the objective function; the
+     * iteration terminates when |J(t-1) - J(t)| &lt;= tolerance * |J(t)|
+     *
+     * @param objectiveTolerance Tolerance, 0 = not used (initial value)
+     */
+    public void setObjectiveTolerance(double objectiveTolerance) {
+        control.setObjectiveTolerance(objectiveTolerance);
+    }
+
+    /**
+     * Set the over-relaxation of the cluster centers: each step 2 moves the
+     * cluster centers by the factor times the FCM step. Factors above 1
+     * shorten the slow linear convergence; as soon as two successive steps
+     * point in opposite directions, the run falls back to the plain step.
+     *
+     * @param relaxation Factor in [1, 2), 1 = none (initial value); 1.3 to 1.5
+     *                   are robust
+     */
+    public void setRelaxation(double relaxation) {
+        control.setRelaxation(relaxation);
+    }
+
+    /**
+     * Requests the running determineClusterCenters to terminate after the
+     * current iteration, e.g. from an iteration listener or another thread;
+     * it returns the cluster centers reached so far. A request before the
+     * start of determineClusterCenters is discarded.
+     */
+    public void stop() {
+        control.stopped = true;
+    }
+
+    /**
+     * Returns whether the last run was stopped by {@link #stop()}
+     *
+     * @return <code>true</code> if stopped
+     */
+    public boolean isStopped() {
+        return control.stopped;
+    }
+
+    /**
+     * Set the maximum number of iterations kept in the search path. With a
+     * limit only the cluster centers of the last iterations are kept.
+     *
+     * @param pathCapacity Iterations, 0 = unbounded (initial value)
+     */
+    public void setPathCapacity(int pathCapacity) {
+        if (pathCapacity < 0) throw new IllegalArgumentException("pathCapacity must not be negative");
+        this.pathCapacity = pathCapacity;
+    }
+
+    /**
+     * Set the listener for the metrics of every iteration
+     *
+     * @param listener Listener, <code>null</code> for none
+     */
+    public void setIterationListener(IterationListener listener) {
+        this.listener = listener;
     }
 
     /**
-     * Set viPath
+     * Returns the search path recorder of the last run with returnPath
      *
-     * @param setViPath Set viPath
+     * @return Path recorder, or <code>null</code>
      */
-    private void setViPath(double[][] setViPath) {
-        viPath = setViPath;
+    public PathRecorder getPath() {
+        return path;
     }
 
     /**
@@ -237,6 +889,6 @@ public class FuzzyCMeans {
      * @return viPath
      */
     public double[][] getViPath() {
-        return viPath;
+        return path == null ? null : path.toArray();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,339 @@
+package de.clusterfreak.ClusterCore;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Grid-binned coreset of the objects
+ * <p>
+ * Bins the objects into a regular grid with a fixed cell size per dimension
+ * and keeps one weighted object per occupied cell: the mean of its objects,
+ * weighted with their number (or the sum of their weights). FCM and PCM on
+ * the coreset ({@link FuzzyCMeans#setWeights(double[])},
+ * {@link PossibilisticCMeans#setWeights(double[])}) cost per iteration in
+ * proportion to the occupied cells instead of the objects.
+ * <p>
+ * Loss bound: every object is replaced by the mean of its cell, so it moves
+ * by at most the cell diagonal cellSize * sqrt(d). The cluster center sums
+ * of the coreset differ from those of the objects only by the membership
+ * differences within a cell, which vanish as the cell size decreases against
+ * the cluster spread; for the objective function the error per object is
+ * bounded by its distance to the cell mean. A cell size of a small fraction
+ * of the expected cluster radius keeps the centers within a fraction of the
+ * cell size.
+ * <p>
+ * Chunks of objects are added one after another ({@link #add(FeatureMatrix)})
+ * so the objects need not fit into memory at once; each chunk is binned in
+ * parallel with one hash table per task, merged on join.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+public final class GridCoreset {
+    /**
+     * Number of dimensions per object
+     */
+    private final int dimensions;
+    /**
+     * Edge length of the grid cells
+     */
+    private final double cellSize;
+    /**
+     * Occupied cells of all added chunks
+     */
+    private final Cells cells;
+    /**
+     * Pool for the parallel calculation steps, <code>null</code> uses the
+     * common pool
+     */
+    private ForkJoinPool pool;
+    /**
+     * Minimum number of objects per parallel task, initial value 65536
+     */
+    private int grainSize = 65536;
+
+    /**
+     * Generates an empty coreset
+     *
+     * @param dimensions Number of dimensions per object
+     * @param cellSize   Edge length of the grid cells
+     */
+    public GridCoreset(int dimensions, double cellSize) {
+        if (dimensions < 1) throw new IllegalArgumentException("dimensions must be positive");
+        if (!(cellSize > 0.0) || Double.isInfinite(cellSize))
+            throw new IllegalArgumentException("cellSize must be positive and finite");
+        this.dimensions = dimensions;
+        this.cellSize = cellSize;
+        this.cells = new Cells(dimensions, cellSize, 1024);
+    }
+
+    /**
+     * Bins all objects into a coreset
+     *
+     * @param object   Objects
+     * @param cellSize Edge length of the grid cells
+     * @return Coreset
+     */
+    public static GridCoreset of(FeatureMatrix object, double cellSize) {
+        GridCoreset coreset = new GridCoreset(object.getDimensions(), cellSize);
+        coreset.add(object);
+        return coreset;
+    }
+
+    /**
+     * Adds a chunk of objects, each with weight 1
+     *
+     * @param object Objects
+     */
+    public void add(FeatureMatrix object) {
+        add(object, null);
+    }
+
+    /**
+     * Adds a chunk of weighted objects, e.g. to reduce a coreset further
+     *
+     * @param object  Objects
+     * @param weights Weight per object, <code>null</code> for 1
+     */
+    public void add(FeatureMatrix object, double[] weights) {
+        if (object.getDimensions() != dimensions)
+            throw new IllegalArgumentException("objects have " + object.getDimensions() + " dimensions, expected " + dimensions);
+        FuzzyCMeans.checkWeights(weights, object.getCount());
+        int n = object.getCount();
+        if (n == 0) return;
+        BinTask task = new BinTask(object, weights, 0, n);
+        Cells chunk = n <= grainSize ? task.invoke() : (pool != null ? pool : ForkJoinPool.commonPool()).invoke(task);
+        cells.merge(chunk);
+    }
+
+    /**
+     * Returns the number of occupied cells (objects of the coreset)
+     *
+     * @return Size
+     */
+    public int size() {
+        return cells.size;
+    }
+
+    /**
+     * Returns the objects of the coreset: the mean of the objects per
+     * occupied cell
+     *
+     * @return Feature matrix, one row per occupied cell
+     */
+    public FeatureMatrix getObjects() {
+        int d = dimensions;
+        double[] data = new double[cells.size * d];
+        for (int c = 0; c < cells.size; c++) {
+            for (int j = 0; j < d; j++) data[c * d + j] = cells.sum[c * d + j] / cells.weight[c];
+        }
+        return new FeatureMatrix(data, d);
+    }
+
+    /**
+     * Returns the weights of the coreset objects: the number of objects (or
+     * the sum of their weights) per occupied cell
+     *
+     * @return Weight per row of {@link #getObjects()}
+     */
+    public double[] getWeights() {
+        return Arrays.copyOf(cells.weight, cells.size);
+    }
+
+    /**
+     * Returns the maximum distance of an object to its coreset object, the
+     * cell diagonal cellSize * sqrt(d)
+     *
+     * @return Distance bound
+     */
+    public double getDistanceBound() {
+        return cellSize * Math.sqrt(dimensions);
+    }
+
+    /**
+     * Returns the edge length of the grid cells
+     *
+     * @return cellSize
+     */
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Set the pool for the parallel calculation steps. The pool is not shut
+     * down by this class.
+     *
+     * @param pool Pool, <code>null</code> uses the common pool
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Set the minimum number of objects per parallel task; each task holds its
+     * own hash table of cells
+     *
+     * @param grainSize Objects per task, initial value 65536
+     */
+    public void setGrainSize(int grainSize) {
+        if (grainSize < 1) throw new IllegalArgumentException("grainSize must be positive");
+        this.grainSize = grainSize;
+    }
+
+    /**
+     * Open-addressing hash table of the occupied cells: grid coordinates, sum
+     * of the (weighted) objects and weight per cell
+     */
+    private static final class Cells {
+        private final int dimensions;
+        private final double cellSize;
+        /**
+         * Cell index + 1 per slot, 0 = empty; the length is a power of 2
+         */
+        private int[] slots;
+        /**
+         * Grid coordinates per cell, row-major
+         */
+        private long[] key;
+        /**
+         * Sum of the weighted objects per cell, row-major
+         */
+        private double[] sum;
+        /**
+         * Weight per cell
+         */
+        private double[] weight;
+        /**
+         * Number of cells
+         */
+        private int size;
+        /**
+         * Grid coordinates of the current object
+         */
+        private final long[] probe;
+
+        Cells(int dimensions, double cellSize, int capacity) {
+            this.dimensions = dimensions;
+            this.cellSize = cellSize;
+            this.slots = new int[Integer.highestOneBit(Math.max(16, capacity * 2 - 1)) * 2];
+            this.key = new long[capacity * dimensions];
+            this.sum = new double[capacity * dimensions];
+            this.weight = new double[capacity];
+            this.probe = new long[dimensions];
+        }
+
+        /**
+         * Adds a weighted object to its cell; objects with weight 0 occupy no
+         * cell
+         */
+        void add(double[] x, int offset, double w) {
+            if (w == 0.0) return;
+            for (int j = 0; j < dimensions; j++) probe[j] = (long) Math.floor(x[offset + j] / cellSize);
+            int c = find(probe, 0);
+            for (int j = 0; j < dimensions; j++) sum[c * dimensions + j] += w * x[offset + j];
+            weight[c] += w;
+        }
+
+        /**
+         * Adds the cells of another table
+         */
+        void merge(Cells other) {
+            for (int o = 0; o < other.size; o++) {
+                int c = find(other.key, o * dimensions);
+                for (int j = 0; j < dimensions; j++) sum[c * dimensions + j] += other.sum[o * dimensions + j];
+                weight[c] += other.weight[o];
+            }
+        }
+
+        /**
+         * Returns the index of the cell with the given grid coordinates,
+         * inserting an empty cell if not present
+         */
+        private int find(long[] coordinates, int offset) {
+            int mask = slots.length - 1;
+            int slot = hash(coordinates, offset) & mask;
+            while (slots[slot] != 0) {
+                int c = slots[slot] - 1;
+                if (Arrays.equals(key, c * dimensions, c * dimensions + dimensions, coordinates, offset, offset + dimensions))
+                    return c;
+                slot = (slot + 1) & mask;
+            }
+            if (size == weight.length) {
+                int capacity = size * 2;
+                key = Arrays.copyOf(key, capacity * dimensions);
+                sum = Arrays.copyOf(sum, capacity * dimensions);
+                weight = Arrays.copyOf(weight, capacity);
+            }
+            int c = size++;
+            System.arraycopy(coordinates, offset, key, c * dimensions, dimensions);
+            slots[slot] = c + 1;
+            // load factor at most 1/2
+            if (2 * size > slots.length) rehash();
+            return c;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int c = 0; c < size; c++) {
+                int slot = hash(key, c * dimensions) & mask;
+                while (slots[slot] != 0) slot = (slot + 1) & mask;
+                slots[slot] = c + 1;
+            }
+        }
+
+        private int hash(long[] coordinates, int offset) {
+            long h = 0x9E3779B97F4A7C15L;
+            for (int j = 0; j < dimensions; j++) {
+                h = (h ^ coordinates[offset + j]) * 0xBF58476D1CE4E5B9L;
+                h ^= h >>> 29;
+            }
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * RecursiveTask binning a range of objects into a hash table of cells,
+     * reduced by merging the smaller table into the larger one
+     */
+    private class BinTask extends RecursiveTask<Cells> {
+        private final FeatureMatrix object;
+        private final double[] weights;
+        private final int from;
+        private final int to;
+
+        BinTask(FeatureMatrix object, double[] weights, int from, int to) {
+            this.object = object;
+            this.weights = weights;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Cells compute() {
+            if (to - from > grainSize) {
+                int mid = (from + to) >>> 1;
+                BinTask left = new BinTask(object, weights, from, mid);
+                left.fork();
+                Cells right = new BinTask(object, weights, mid, to).compute();
+                Cells leftCells = left.join();
+                if (leftCells.size > right.size) {
+                    leftCells.merge(right);
+                    return leftCells;
+                }
+                right.merge(leftCells);
+                return right;
+            }
+            int d = dimensions;
+            double[] buffer = object.rowBuffer();
+            Cells cells = new Cells(d, cellSize, 1024);
+            for (int i = from; i < to; i++) {
+                double[] x = object.row(i, buffer);
+                int xo = object.rowOffset(i);
+                cells.add(x, xo, weights != null ? weights[i] : 1.0);
+            }
+            return cells;
+        }
+    }
+}
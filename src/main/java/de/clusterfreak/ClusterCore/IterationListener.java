@@ -0,0 +1,24 @@
+package de.clusterfreak.ClusterCore;
+
+/**
+ * Receives the metrics of every iteration of FCM and PCM
+ * <p>
+ * Called in the thread running determineClusterCenters, after the
+ * termination check of an iteration. The metrics object is reused for all
+ * iterations of an FCM- or PCM-Object; copy the values that are needed
+ * later.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ * @see FuzzyCMeans#setIterationListener(IterationListener)
+ * @see PossibilisticCMeans#setIterationListener(IterationListener)
+ */
+@FunctionalInterface
+public interface IterationListener {
+    /**
+     * Called after each iteration
+     *
+     * @param metrics Metrics of the iteration, valid during the call only
+     */
+    void iteration(IterationMetrics metrics);
+}
@@ -0,0 +1,156 @@
+package de.clusterfreak.ClusterCore;
+
+/**
+ * Metrics of one FCM or PCM iteration
+ * <p>
+ * One mutable instance per FCM- or PCM-Object, overwritten for every
+ * iteration, so reporting does not allocate. Times are only measured while
+ * an {@link IterationListener} is set.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+public class IterationMetrics {
+    /**
+     * Pass: 0 = FCM (also the initialization of PCM), 1 to repeat = PCM pass
+     */
+    int pass;
+    /**
+     * Iteration within the pass, starting with 1
+     */
+    int iteration;
+    /**
+     * Euclidean distance between the new and the previous partition matrix
+     */
+    double delta;
+    /**
+     * Euclidean length of the cluster center step, 0 if terminated before it
+     */
+    double shift;
+    /**
+     * Objective function of the new partition matrix
+     */
+    double objective;
+    /**
+     * Membership values calculated in step 3 (object-cluster pairs)
+     */
+    long evaluations;
+    /**
+     * Nanoseconds for the determination of the cluster centers (and ni)
+     */
+    long centerNanos;
+    /**
+     * Nanoseconds for the new partition matrix, including the accumulation of
+     * the cluster center sums in the same pass
+     */
+    long membershipNanos;
+    /**
+     * Nanoseconds for the termination check
+     */
+    long convergenceNanos;
+    /**
+     * ni of the PCM pass (not a copy), <code>null</code> for FCM
+     */
+    double[] ni;
+
+    /**
+     * Returns the pass
+     *
+     * @return 0 = FCM (also the initialization of PCM), 1 to repeat = PCM pass
+     */
+    public int getPass() {
+        return pass;
+    }
+
+    /**
+     * Returns the iteration within the pass
+     *
+     * @return Iteration, starting with 1
+     */
+    public int getIteration() {
+        return iteration;
+    }
+
+    /**
+     * Returns the convergence delta, the euclidean distance between the new
+     * and the previous partition matrix; the iteration terminates when it is
+     * below the termination threshold
+     *
+     * @return delta
+     */
+    public double getDelta() {
+        return delta;
+    }
+
+    /**
+     * Returns the euclidean length of the cluster center step of this
+     * iteration (all centers, without relaxation)
+     *
+     * @return Shift, 0 if the iteration terminated before step 2
+     */
+    public double getCenterShift() {
+        return shift;
+    }
+
+    /**
+     * Returns the objective function of the new partition matrix to the
+     * cluster centers it was calculated from: sum mik^m * dik&sup2; for FCM, plus
+     * sum ni * sum (1 - mik)^m for PCM. The memberships are calculated from the
+     * plain distance, so it does not decrease strictly near the end of a run.
+     *
+     * @return Objective
+     */
+    public double getObjective() {
+        return objective;
+    }
+
+    /**
+     * Returns the number of membership values calculated in step 3
+     * (object-cluster pairs): n * c, less for PCM with a membership threshold
+     * (points touched by the range queries of the spatial index)
+     *
+     * @return Evaluations
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Returns the nanoseconds for the determination of the cluster centers
+     * (and ni in the first iteration of a PCM pass)
+     *
+     * @return Nanoseconds
+     */
+    public long getCenterNanos() {
+        return centerNanos;
+    }
+
+    /**
+     * Returns the nanoseconds for the new partition matrix, including the
+     * accumulation of the cluster center sums in the same pass
+     *
+     * @return Nanoseconds
+     */
+    public long getMembershipNanos() {
+        return membershipNanos;
+    }
+
+    /**
+     * Returns the nanoseconds for the termination check
+     *
+     * @return Nanoseconds
+     */
+    public long getConvergenceNanos() {
+        return convergenceNanos;
+    }
+
+    /**
+     * Returns ni per cluster of the PCM pass (not a copy, must not be
+     * modified)
+     *
+     * @return ni, <code>null</code> for FCM
+     */
+    public double[] getNi() {
+        return ni;
+    }
+}
@@ -0,0 +1,309 @@
+package de.clusterfreak.ClusterCore;
+
+import java.util.Arrays;
+
+/**
+ * k-d tree over the objects for range queries
+ * <p>
+ * Built once per run: the objects are copied in tree order, each node holds
+ * a contiguous range of them and its bounding box. A range query returns the
+ * leaf ranges whose bounding box intersects the sphere around a center, so
+ * the caller scans contiguous objects and skips all others.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+final class KdTree {
+    /**
+     * Maximum number of objects per leaf
+     */
+    static final int LEAF_SIZE = 16;
+    /**
+     * Number of objects
+     */
+    final int count;
+    /**
+     * Number of dimensions per object
+     */
+    final int dimensions;
+    /**
+     * Objects in tree order, row-major
+     */
+    final double[] points;
+    /**
+     * Object index of each position in tree order
+     */
+    final int[] index;
+    /**
+     * First position per node
+     */
+    private final int[] from;
+    /**
+     * Position after the last one per node
+     */
+    private final int[] to;
+    /**
+     * Bounding box per node: minimum, then maximum of each dimension
+     */
+    private final double[] box;
+    /**
+     * Number of nodes
+     */
+    private int nodes;
+
+    /**
+     * Builds the tree
+     *
+     * @param object Objects
+     */
+    KdTree(FeatureMatrix object) {
+        this.count = object.getCount();
+        this.dimensions = object.getDimensions();
+        this.points = new double[ClusterMath.size(count, dimensions)];
+        this.index = new int[count];
+        for (int i = 0; i < count; i++) index[i] = i;
+        // a balanced tree with leaves of at least LEAF_SIZE / 2 objects
+        int capacity = 2 * Math.max(1, 2 * count / LEAF_SIZE + 1);
+        this.from = new int[capacity];
+        this.to = new int[capacity];
+        this.box = new double[capacity * 2 * dimensions];
+        // one heap copy of the objects, also of mapped ones: read in object
+        // order, built on, then moved into tree order in place
+        double[] buffer = object.rowBuffer();
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(object.row(i, buffer), object.rowOffset(i), points, i * dimensions, dimensions);
+        }
+        build(points, 0, 0, 0, count);
+        toTreeOrder();
+    }
+
+    /**
+     * Moves the objects from object order into tree order along the cycles of
+     * the permutation
+     */
+    private void toTreeOrder() {
+        boolean[] done = new boolean[count];
+        double[] first = new double[dimensions];
+        for (int p = 0; p < count; p++) {
+            if (done[p] || index[p] == p) continue;
+            System.arraycopy(points, p * dimensions, first, 0, dimensions);
+            int q = p;
+            while (index[q] != p) {
+                System.arraycopy(points, index[q] * dimensions, points, q * dimensions, dimensions);
+                done[q] = true;
+                q = index[q];
+            }
+            System.arraycopy(first, 0, points, q * dimensions, dimensions);
+            done[q] = true;
+        }
+    }
+
+    /**
+     * Builds node and its subtree over the positions [lo, hi); the children of
+     * node are 2 * node + 1 and 2 * node + 2
+     */
+    private void build(double[] x, int xo, int node, int lo, int hi) {
+        from[node] = lo;
+        to[node] = hi;
+        nodes = Math.max(nodes, node + 1);
+        int b = node * 2 * dimensions;
+        for (int j = 0; j < dimensions; j++) {
+            box[b + j] = Double.POSITIVE_INFINITY;
+            box[b + dimensions + j] = Double.NEGATIVE_INFINITY;
+        }
+        for (int p = lo; p < hi; p++) {
+            int o = xo + index[p] * dimensions;
+            for (int j = 0; j < dimensions; j++) {
+                box[b + j] = Math.min(box[b + j], x[o + j]);
+                box[b + dimensions + j] = Math.max(box[b + dimensions + j], x[o + j]);
+            }
+        }
+        if (hi - lo <= LEAF_SIZE) return;
+        // split the widest dimension at the median
+        int split = 0;
+        for (int j = 1; j < dimensions; j++) {
+            if (box[b + dimensions + j] - box[b + j] > box[b + dimensions + split] - box[b + split]) split = j;
+        }
+        int mid = (lo + hi) >>> 1;
+        select(x, xo, split, lo, hi - 1, mid);
+        build(x, xo, 2 * node + 1, lo, mid);
+        build(x, xo, 2 * node + 2, mid, hi);
+    }
+
+    /**
+     * Partially sorts the positions [lo, hi] so that position k holds the
+     * object with the k-th smallest coordinate j (quickselect)
+     */
+    private void select(double[] x, int xo, int j, int lo, int hi, int k) {
+        while (lo < hi) {
+            double pivot = x[xo + index[(lo + hi) >>> 1] * dimensions + j];
+            int l = lo;
+            int h = hi;
+            while (l <= h) {
+                while (x[xo + index[l] * dimensions + j] < pivot) l++;
+                while (x[xo + index[h] * dimensions + j] > pivot) h--;
+                if (l <= h) {
+                    int swap = index[l];
+                    index[l] = index[h];
+                    index[h] = swap;
+                    l++;
+                    h--;
+                }
+            }
+            if (k <= h) hi = h;
+            else if (k >= l) lo = l;
+            else return;
+        }
+    }
+
+    /**
+     * Returns the objects in tree order
+     *
+     * @return Feature matrix on the copied objects
+     */
+    FeatureMatrix matrix() {
+        return new FeatureMatrix(points, dimensions);
+    }
+
+    /**
+     * Reorders the rows of a partition matrix from object order into tree
+     * order
+     *
+     * @param mik     Partition matrix, row-major in object order
+     * @param cluster Number of clusters
+     * @return Partition matrix, row-major in tree order
+     */
+    double[] toTreeOrder(double[] mik, int cluster) {
+        double[] ordered = new double[mik.length];
+        for (int p = 0; p < count; p++) System.arraycopy(mik, index[p] * cluster, ordered, p * cluster, cluster);
+        return ordered;
+    }
+
+    /**
+     * Reorders the rows of a partition matrix from tree order into object
+     * order
+     *
+     * @param mik     Partition matrix, row-major in tree order
+     * @param cluster Number of clusters
+     * @return Partition matrix, row-major in object order
+     */
+    double[] toObjectOrder(double[] mik, int cluster) {
+        double[] ordered = new double[mik.length];
+        for (int p = 0; p < count; p++) System.arraycopy(mik, p * cluster, ordered, index[p] * cluster, cluster);
+        return ordered;
+    }
+
+    /**
+     * Collects the leaf ranges whose bounding box intersects the sphere with
+     * squared radius r2 around a center
+     *
+     * @param vi     Cluster centers, row-major
+     * @param offset Start of the center in vi
+     * @param r2     Squared radius
+     * @param ranges Leaf ranges, cleared first
+     * @return Number of objects in the ranges
+     */
+    int query(double[] vi, int offset, double r2, Ranges ranges) {
+        ranges.size = 0;
+        ranges.all = false;
+        ranges.objects = 0;
+        query(0, vi, offset, r2, ranges);
+        return ranges.objects;
+    }
+
+    private void query(int node, double[] vi, int offset, double r2, Ranges ranges) {
+        int b = node * 2 * dimensions;
+        double min = 0.0;
+        for (int j = 0; j < dimensions; j++) {
+            double v = vi[offset + j];
+            double diff = v < box[b + j] ? box[b + j] - v : v > box[b + dimensions + j] ? v - box[b + dimensions + j] : 0.0;
+            min += diff * diff;
+        }
+        if (!(min <= r2)) return;
+        int left = 2 * node + 1;
+        if (left >= nodes || to[node] - from[node] <= LEAF_SIZE) {
+            ranges.add(from[node], to[node]);
+            return;
+        }
+        query(left, vi, offset, r2, ranges);
+        query(left + 1, vi, offset, r2, ranges);
+    }
+
+    /**
+     * Growable list of position ranges [from, to) in tree order; adjacent
+     * ranges are joined
+     */
+    static final class Ranges {
+        /**
+         * <code>true</code> if the ranges cover all objects (not from a query)
+         */
+        boolean all;
+        /**
+         * from, to per range
+         */
+        int[] bounds = new int[32];
+        /**
+         * Number of objects in the ranges before each range
+         */
+        int[] start = new int[16];
+        /**
+         * Number of ranges
+         */
+        int size;
+        /**
+         * Number of objects in the ranges
+         */
+        int objects;
+
+        /**
+         * Generates one instance per cluster
+         *
+         * @param cluster Number of clusters
+         * @param all     <code>true</code> to cover all objects, otherwise
+         *                none
+         * @return Ranges per cluster
+         */
+        static Ranges[] of(int cluster, boolean all) {
+            Ranges[] ranges = new Ranges[cluster];
+            for (int k = 0; k < cluster; k++) {
+                ranges[k] = new Ranges();
+                ranges[k].all = all;
+            }
+            return ranges;
+        }
+
+        void add(int from, int to) {
+            if (size > 0 && bounds[2 * size - 1] == from) {
+                bounds[2 * size - 1] = to;
+                objects += to - from;
+                return;
+            }
+            if (2 * size + 2 > bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                start = Arrays.copyOf(start, start.length * 2);
+            }
+            bounds[2 * size] = from;
+            bounds[2 * size + 1] = to;
+            start[size] = objects;
+            objects += to - from;
+            size++;
+        }
+
+        /**
+         * Returns the range that holds an object, counted across the ranges
+         *
+         * @param object Object number in [0, objects)
+         * @return Range
+         */
+        int locate(int object) {
+            int lo = 0;
+            int hi = size - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (start[mid] <= object) lo = mid;
+                else hi = mid - 1;
+            }
+            return lo;
+        }
+    }
+}
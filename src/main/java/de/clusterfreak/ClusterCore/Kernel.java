@@ -0,0 +1,208 @@
+package de.clusterfreak.ClusterCore;
+
+/**
+ * Arithmetic kernels of the innermost loops
+ * <p>
+ * {@link #DEFAULT} uses the Vector API (jdk.incubator.vector) when the module
+ * is present, e.g. with <code>--add-modules jdk.incubator.vector</code>, and
+ * the scalar loops otherwise. The system property
+ * <code>de.clusterfreak.ClusterCore.kernel=scalar</code> forces the scalar
+ * loops.
+ * <p>
+ * Each kernel chooses the layout of the cluster centers and center sums per
+ * number of dimensions: row-major (element j of cluster k at k * dimensions +
+ * j), or dimension-major (at j * cluster + k), which lets rows shorter than
+ * one vector run the distance and center sum loops across the clusters.
+ * Callers convert the row-major cluster centers once per task with
+ * {@link #centers(double[], int, int)}; {@link ClusterStatistics} keeps its
+ * sums in the layout of the kernel.
+ * <p>
+ * The float methods serve the single precision computation: the same loops
+ * on float arrays, with twice the lanes per vector. Their per-cluster arrays,
+ * centers and sums extend {@link #singlePadding()} floats past the values, so
+ * the loops across the clusters run whole vectors without masks (with JDK 21
+ * masked float vectors were slower, and a masked reduction kept the JIT from
+ * compiling the calling task at all).
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+interface Kernel {
+    /**
+     * Kernel used by the clustering algorithms
+     */
+    Kernel DEFAULT = select();
+
+    /**
+     * Returns whether cluster centers and center sums are dimension-major for
+     * this number of dimensions
+     *
+     * @param dimensions Number of dimensions
+     * @return <code>true</code> for dimension-major, <code>false</code> for
+     * row-major
+     */
+    boolean transposed(int dimensions);
+
+    /**
+     * Returns the cluster centers in the layout of this kernel
+     *
+     * @param vi         Cluster centers, row-major
+     * @param cluster    Number of clusters
+     * @param dimensions Number of dimensions
+     * @return vi itself or a dimension-major copy
+     */
+    default double[] centers(double[] vi, int cluster, int dimensions) {
+        return transposed(dimensions) ? ClusterMath.transpose(vi, cluster, dimensions) : vi;
+    }
+
+    /**
+     * Squared euclidean distances of one object to all cluster centers
+     *
+     * @param x          Objects, row-major
+     * @param xOffset    Start of the object in x
+     * @param centers    Cluster centers in the layout of this kernel, see
+     *                   {@link #centers(double[], int, int)}
+     * @param cluster    Number of clusters
+     * @param dimensions Number of dimensions
+     * @param d2         Output, squared distance per cluster
+     */
+    void squaredDistances(double[] x, int xOffset, double[] centers, int cluster, int dimensions, double[] d2);
+
+    /**
+     * FCM weights (1/dik)^(1/(m-1)) with m = 2 from squared distances
+     *
+     * @param d2      Squared distance per cluster
+     * @param w       Output, weight per cluster
+     * @param cluster Number of clusters
+     * @return Sum of the weights
+     */
+    double fuzzyWeights(double[] d2, double[] w, int cluster);
+
+    /**
+     * PCM memberships 1 / (1 + dik&sup2; / ni) from squared distances
+     *
+     * @param d2      Squared distance per cluster
+     * @param ni      ni per cluster
+     * @param u       Output, membership per cluster
+     * @param cluster Number of clusters
+     */
+    void possibilisticMemberships(double[] d2, double[] ni, double[] u, int cluster);
+
+    /**
+     * sum += w * x for one row-major row
+     *
+     * @param sum        Sums, row-major
+     * @param sumOffset  Start of the row in sum
+     * @param w          Weight
+     * @param x          Objects, row-major
+     * @param xOffset    Start of the object in x
+     * @param dimensions Number of dimensions
+     */
+    void accumulate(double[] sum, int sumOffset, double w, double[] x, int xOffset, int dimensions);
+
+    /**
+     * sum(k) += w[k] * x for all clusters
+     *
+     * @param sum        Sums in the layout of this kernel
+     * @param w          Weight per cluster
+     * @param x          Objects, row-major
+     * @param xOffset    Start of the object in x
+     * @param cluster    Number of clusters
+     * @param dimensions Number of dimensions
+     */
+    void accumulate(double[] sum, double[] w, double[] x, int xOffset, int cluster, int dimensions);
+
+    /**
+     * Returns whether float cluster centers and center sums are
+     * dimension-major for this number of dimensions
+     *
+     * @param dimensions Number of dimensions
+     * @return <code>true</code> for dimension-major, <code>false</code> for
+     * row-major
+     */
+    boolean transposedSingle(int dimensions);
+
+    /**
+     * Returns the number of unused floats at the end of the arrays passed to
+     * the float methods. The float methods may overwrite them, except the
+     * padding of the weights, which must stay 0.
+     *
+     * @return Floats per vector, 0 for scalar loops
+     */
+    int singlePadding();
+
+    /**
+     * Returns the cluster centers as floats in the layout of this kernel
+     *
+     * @param vi         Cluster centers, row-major
+     * @param cluster    Number of clusters
+     * @param dimensions Number of dimensions
+     * @return Row-major or dimension-major float copy
+     */
+    default float[] singleCenters(double[] vi, int cluster, int dimensions) {
+        boolean transposed = transposedSingle(dimensions);
+        float[] centers = new float[vi.length + singlePadding()];
+        for (int k = 0; k < cluster; k++) {
+            for (int j = 0; j < dimensions; j++) {
+                centers[transposed ? j * cluster + k : k * dimensions + j] = (float) vi[k * dimensions + j];
+            }
+        }
+        return centers;
+    }
+
+    /**
+     * Squared euclidean distances of one float object to all cluster centers
+     *
+     * @param x          Objects, row-major
+     * @param xOffset    Start of the object in x
+     * @param centers    Cluster centers of {@link #singleCenters(double[], int, int)}
+     * @param cluster    Number of clusters
+     * @param dimensions Number of dimensions
+     * @param d2         Output, squared distance per cluster
+     */
+    void squaredDistances(float[] x, int xOffset, float[] centers, int cluster, int dimensions, float[] d2);
+
+    /**
+     * FCM weights (1/dik)^(1/(m-1)) with m = 2 from float squared distances
+     *
+     * @param d2      Squared distance per cluster
+     * @param w       Output, weight per cluster
+     * @param cluster Number of clusters
+     * @return Sum of the weights
+     */
+    float fuzzyWeights(float[] d2, float[] w, int cluster);
+
+    /**
+     * PCM memberships 1 / (1 + dik&sup2; / ni) from float squared distances
+     *
+     * @param d2      Squared distance per cluster
+     * @param ni      ni per cluster
+     * @param u       Output, membership per cluster
+     * @param cluster Number of clusters
+     */
+    void possibilisticMemberships(float[] d2, float[] ni, float[] u, int cluster);
+
+    /**
+     * sum(k) += w[k] * x for all clusters, in float
+     *
+     * @param sum        Sums in the float layout of this kernel
+     * @param w          Weight per cluster, 0 in the padding
+     * @param x          Objects, row-major
+     * @param xOffset    Start of the object in x
+     * @param cluster    Number of clusters
+     * @param dimensions Number of dimensions
+     */
+    void accumulate(float[] sum, float[] w, float[] x, int xOffset, int cluster, int dimensions);
+
+    private static Kernel select() {
+        if (!"scalar".equals(System.getProperty("de.clusterfreak.ClusterCore.kernel"))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (Kernel) Class.forName("de.clusterfreak.ClusterCore.VectorKernel").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError ignored) {
+                // fall back to the scalar loops
+            }
+        }
+        return new ScalarKernel();
+    }
+}
@@ -0,0 +1,402 @@
+package de.clusterfreak.ClusterCore;
+
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Mini-Batch Fuzzy-C-Means
+ * <p>
+ * Fuzzy-C-Means for data sets larger than the heap. The objects are read in
+ * chunks; per chunk only the cluster center sums (sum of mik^m * object and
+ * sum of mik^m per cluster) are kept, the partition matrix is never
+ * materialized. Memory use is O(chunk * c) independent of the number of
+ * objects.
+ *
+ * <pre>
+ * Step 1: Initialization with FCM on the first chunk
+ * Step 2: Memberships of a chunk to the current cluster centers
+ * Step 3: Determination of the cluster centers from the accumulated sums
+ * Step 4: Termination (center shift) or repetition
+ * </PRE>
+ * <p>
+ * The passes share the termination criteria of FCM (maximum number of
+ * iterations, tolerance of the objective function, relaxation, stop); the
+ * termination threshold e applies to the center shift.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ * @see FuzzyCMeans
+ */
+public class MiniBatchFuzzyCMeans {
+    /**
+     * Quantity/number of clusters
+     */
+    private final int cluster;
+    /**
+     * Number of dimensions per object
+     */
+    private final int dimensions;
+    /**
+     * Fuzzifier, initial value 2
+     */
+    private final Fuzzifier m;
+    /**
+     * Termination threshold of the center shift, initial value 1.0e-7
+     */
+    private double e = 1.0e-7;
+    /**
+     * Cluster centers vi, row-major
+     */
+    private final double[] vi;
+    /**
+     * Cluster centers initialized
+     */
+    private boolean initialized;
+    /**
+     * Accumulated sums of the mini-batch updates
+     */
+    private ClusterStatistics accumulated;
+    /**
+     * Weight of the accumulated sums per chunk, initial value 1.0 (no decay)
+     */
+    private double decay = 1.0;
+    /**
+     * Pool for the parallel calculation steps, <code>null</code> uses the
+     * common pool
+     */
+    private ForkJoinPool pool;
+    /**
+     * Minimum number of objects per parallel task, initial value 1024
+     */
+    private int grainSize = 1024;
+    /**
+     * Termination criteria and relaxation of the passes
+     */
+    private final ConvergenceControl control = new ConvergenceControl();
+
+    /**
+     * Generates a Mini-Batch-FCM-Object
+     *
+     * @param clusterCount Number of clusters
+     * @param dimensions   Number of dimensions per object
+     */
+    public MiniBatchFuzzyCMeans(int clusterCount, int dimensions) {
+        this(clusterCount, dimensions, Fuzzifier.DEFAULT);
+    }
+
+    private MiniBatchFuzzyCMeans(int clusterCount, int dimensions, Fuzzifier m) {
+        this.cluster = clusterCount;
+        this.dimensions = dimensions;
+        this.m = m;
+        this.vi = new double[cluster * dimensions];
+    }
+
+    /**
+     * Generates a Mini-Batch-FCM-Object
+     *
+     * @param clusterCount Number of clusters
+     * @param dimensions   Number of dimensions per object
+     * @param e            Termination threshold of the center shift, initial value 1.0e-7
+     */
+    public MiniBatchFuzzyCMeans(int clusterCount, int dimensions, double e) {
+        this(clusterCount, dimensions);
+        this.e = e;
+    }
+
+    /**
+     * Generates a Mini-Batch-FCM-Object with a fuzzifier m other than 2, see
+     * {@link FuzzyCMeans#FuzzyCMeans(FeatureMatrix, int, double, double)}
+     *
+     * @param clusterCount Number of clusters
+     * @param dimensions   Number of dimensions per object
+     * @param e            Termination threshold of the center shift, initial value 1.0e-7
+     * @param m            Fuzzifier, greater than 1, initial value 2
+     */
+    public MiniBatchFuzzyCMeans(int clusterCount, int dimensions, double e, double m) {
+        this(clusterCount, dimensions, Fuzzifier.of(m));
+        this.e = e;
+    }
+
+    /**
+     * Returns the cluster centers of full passes over all chunks. Each pass
+     * computes the memberships of every chunk to the centers of the previous
+     * pass, which is the FCM iteration without a stored partition matrix. The
+     * passes end when the cluster centers move less than the termination
+     * threshold, or by the criteria of {@link #setMaxIterations(int)},
+     * {@link #setObjectiveTolerance(double)} and {@link #stop()}.
+     *
+     * @param chunks Chunks of objects; iterated once per pass, e.g. by reading a
+     *               file again
+     * @return Cluster centers
+     */
+    public double[][] determineClusterCenters(Iterable<FeatureMatrix> chunks) {
+        control.stopped = false;
+        control.start(vi.length);
+        boolean repeat;
+        do {
+            ClusterStatistics statistics = new ClusterStatistics(cluster, dimensions);
+            for (FeatureMatrix chunk : chunks) {
+                if (!initialized) initialize(chunk);
+                statistics.merge(statistics(chunk));
+            }
+            // Step 3 (with relaxation), Step 4 on the center shift
+            repeat = control.update(statistics, vi);
+            repeat = control.repeat(statistics, control.shift(), e) && repeat;
+        } while (repeat);
+        return getVi();
+    }
+
+    /**
+     * Returns the cluster centers after one mini-batch update per chunk; a
+     * {@link #stop()} ends it after the current chunk
+     *
+     * @param chunks Chunks of objects, read once
+     * @return Cluster centers
+     */
+    public double[][] determineClusterCenters(Iterator<FeatureMatrix> chunks) {
+        control.stopped = false;
+        while (chunks.hasNext() && !control.stopped) partialFit(chunks.next());
+        return getVi();
+    }
+
+    /**
+     * Mini-batch update with one chunk: the sums of the chunk are added to the
+     * accumulated sums (weighted by the decay) and the cluster centers are
+     * determined from them
+     *
+     * @param chunk Chunk of objects
+     * @return Center shift of this update
+     */
+    public double partialFit(FeatureMatrix chunk) {
+        if (!initialized) initialize(chunk);
+        ClusterStatistics statistics = statistics(chunk);
+        if (accumulated == null) {
+            accumulated = statistics;
+        } else {
+            for (int j = 0; j < accumulated.sum.length; j++) accumulated.sum[j] *= decay;
+            for (int k = 0; k < cluster; k++) accumulated.weight[k] *= decay;
+            accumulated.merge(statistics);
+        }
+        return update(accumulated);
+    }
+
+    /**
+     * Returns the memberships of a chunk to the current cluster centers
+     *
+     * @param chunk Chunk of objects
+     * @param mik   Output, row-major partition matrix of the chunk
+     *              (chunk.getCount() * clusterCount)
+     */
+    public void membership(FeatureMatrix chunk, double[] mik) {
+        checkDimensions(chunk);
+        invoke(new ChunkTask(chunk, vi, mik, cluster, m, 0, chunk.getCount(), grainSize), chunk.getCount());
+    }
+
+    /**
+     * Step 1: Initialization with the cluster centers of FCM on the first chunk
+     */
+    private void initialize(FeatureMatrix chunk) {
+        checkDimensions(chunk);
+        FuzzyCMeans fcm = new FuzzyCMeans(chunk, cluster, e, m.m);
+        control.copyTo(fcm.control);
+        fcm.setPool(pool);
+        fcm.setGrainSize(grainSize);
+        double[][] first = fcm.determineClusterCenters(false, false);
+        for (int k = 0; k < cluster; k++) System.arraycopy(first[k], 0, vi, k * dimensions, dimensions);
+        initialized = true;
+    }
+
+    /**
+     * Step 2: Cluster center sums of a chunk
+     */
+    private ClusterStatistics statistics(FeatureMatrix chunk) {
+        checkDimensions(chunk);
+        return invoke(new ChunkTask(chunk, vi, null, cluster, m, 0, chunk.getCount(), grainSize), chunk.getCount());
+    }
+
+    /**
+     * Step 3: Determination of the cluster centers
+     *
+     * @return Center shift
+     */
+    private double update(ClusterStatistics statistics) {
+        double[] before = vi.clone();
+        statistics.centers(vi);
+        double shift = 0.0;
+        for (int j = 0; j < vi.length; j++) {
+            double diff = vi[j] - before[j];
+            shift += diff * diff;
+        }
+        return Math.sqrt(shift);
+    }
+
+    private void checkDimensions(FeatureMatrix chunk) {
+        if (chunk.getDimensions() != dimensions)
+            throw new IllegalArgumentException("chunk has " + chunk.getDimensions() + " dimensions, expected " + dimensions);
+    }
+
+    /**
+     * RecursiveTask for the memberships and cluster center sums of a chunk,
+     * split into ranges of objects
+     */
+    private static class ChunkTask extends RecursiveTask<ClusterStatistics> {
+        private final FeatureMatrix chunk;
+        private final double[] vi;
+        private final double[] mik;
+        private final int cluster;
+        private final Fuzzifier m;
+        private final int from;
+        private final int to;
+        private final int grainSize;
+
+        public ChunkTask(FeatureMatrix chunk, double[] vi, double[] mik, int cluster, Fuzzifier m, int from, int to, int grainSize) {
+            this.chunk = chunk;
+            this.vi = vi;
+            this.mik = mik;
+            this.cluster = cluster;
+            this.m = m;
+            this.from = from;
+            this.to = to;
+            this.grainSize = grainSize;
+        }
+
+        @Override
+        protected ClusterStatistics compute() {
+            if (to - from > grainSize) {
+                int mid = (from + to) >>> 1;
+                ChunkTask left = new ChunkTask(chunk, vi, mik, cluster, m, from, mid, grainSize);
+                left.fork();
+                ClusterStatistics right = new ChunkTask(chunk, vi, mik, cluster, m, mid, to, grainSize).compute();
+                return left.join().merge(right);
+            }
+            int d = chunk.getDimensions();
+            double[] buffer = chunk.rowBuffer();
+            ClusterStatistics statistics = new ClusterStatistics(cluster, d);
+            Kernel kernel = Kernel.DEFAULT;
+            double[] centers = kernel.centers(vi, cluster, d);
+            double[] d2 = new double[cluster];
+            double[] wik = new double[cluster];
+            for (int i = from; i < to; i++) {
+                double[] x = chunk.row(i, buffer);
+                int xo = chunk.rowOffset(i);
+                kernel.squaredDistances(x, xo, centers, cluster, d, d2);
+                // (1/dik)^(1/(m-1))
+                double dik = m.fuzzyWeights(d2, wik, cluster);
+                for (int k = 0; k < cluster; k++) {
+                    double u = wik[k] / dik;
+                    if (Double.isNaN(u)) u = 1.0;
+                    if (mik != null) mik[i * cluster + k] = u;
+                    double um = m.power(u);
+                    wik[k] = um;
+                    statistics.objective += um * d2[k];
+                }
+                statistics.addAll(wik, x, xo);
+            }
+            return statistics;
+        }
+    }
+
+    /**
+     * Runs a parallel calculation step. Chunks that fit into one task are
+     * calculated in the calling thread.
+     *
+     * @param task  Task over all objects of a chunk
+     * @param count Number of objects of the chunk
+     * @param <T>   Result type
+     * @return Result of the task
+     */
+    private <T> T invoke(ForkJoinTask<T> task, int count) {
+        if (count <= grainSize) return task.invoke();
+        return (pool != null ? pool : ForkJoinPool.commonPool()).invoke(task);
+    }
+
+    /**
+     * Set the pool for the parallel calculation steps. The pool is not shut
+     * down by this class.
+     *
+     * @param pool Pool, <code>null</code> uses the common pool
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Set the minimum number of objects per parallel task
+     *
+     * @param grainSize Objects per task, initial value 1024
+     */
+    public void setGrainSize(int grainSize) {
+        if (grainSize < 1) throw new IllegalArgumentException("grainSize must be positive");
+        this.grainSize = grainSize;
+    }
+
+    /**
+     * Set the weight of the accumulated sums per mini-batch update. Values
+     * below 1.0 let older chunks fade out.
+     *
+     * @param decay Weight in (0, 1], initial value 1.0
+     */
+    public void setDecay(double decay) {
+        if (!(decay > 0.0 && decay <= 1.0)) throw new IllegalArgumentException("decay must be in (0, 1]");
+        this.decay = decay;
+    }
+
+    /**
+     * Set the maximum number of passes over all chunks, and of iterations of
+     * the FCM initialization on the first chunk
+     *
+     * @param maxIterations Iterations, 0 = unlimited (initial value)
+     */
+    public void setMaxIterations(int maxIterations) {
+        control.setMaxIterations(maxIterations);
+    }
+
+    /**
+     * Set the tolerance of the relative change of the objective function, see
+     * {@link FuzzyCMeans#setObjectiveTolerance(double)}
+     *
+     * @param objectiveTolerance Tolerance, 0 = not used (initial value)
+     */
+    public void setObjectiveTolerance(double objectiveTolerance) {
+        control.setObjectiveTolerance(objectiveTolerance);
+    }
+
+    /**
+     * Set the over-relaxation of the cluster centers per pass, see
+     * {@link FuzzyCMeans#setRelaxation(double)}
+     *
+     * @param relaxation Factor in [1, 2), 1 = none (initial value)
+     */
+    public void setRelaxation(double relaxation) {
+        control.setRelaxation(relaxation);
+    }
+
+    /**
+     * Requests the running determineClusterCenters to terminate after the
+     * current pass or chunk; it returns the cluster centers reached so far. A
+     * request before the start of determineClusterCenters is discarded.
+     */
+    public void stop() {
+        control.stopped = true;
+    }
+
+    /**
+     * Returns whether the last run was stopped by {@link #stop()}
+     *
+     * @return <code>true</code> if stopped
+     */
+    public boolean isStopped() {
+        return control.stopped;
+    }
+
+    /**
+     * Returns cluster centers vi
+     *
+     * @return vi
+     */
+    public double[][] getVi() {
+        return ClusterMath.toRows(vi, cluster, dimensions);
+    }
+}
@@ -0,0 +1,342 @@
+package de.clusterfreak.ClusterCore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Concurrent restarts of FCM with early pruning of losing restarts
+ * <p>
+ * Runs R restarts from different initializations on the same objects
+ * concurrently ({@link ClusterBatch}) and keeps the one with the smallest
+ * objective function. Every restart reports its objective function after
+ * each iteration; a restart is stopped ({@link FuzzyCMeans#stop()}) as soon
+ * as it is clearly converging to a worse local optimum:
+ *
+ * <pre>
+ * gap = J(r) - min J          (current objective of all running and finished restarts)
+ * stop if iteration &gt;= 3 and gap &gt; margin * min J and gap &gt; 10 * (J(r, t-1) - J(r))
+ * </PRE>
+ * <p>
+ * With linear convergence at a rate of up to 0.9 the remaining decrease of a
+ * restart is below 10 times its last decrease, so a stopped restart would
+ * not have closed the gap. The rule is a heuristic: a restart that leaves a
+ * plateau late (e.g. from a random partition matrix) may be stopped although
+ * it would have reached the same optimum; a margin of 0 disables pruning.
+ * The wall time stays close to that of the slowest surviving restart; the
+ * parallel steps of all restarts share the pool.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+public class MultiStart {
+    /**
+     * Iterations before a restart may be stopped
+     */
+    private static final int WARMUP = 3;
+    /**
+     * Each Object represents 1 cluster vi
+     */
+    private final FeatureMatrix object;
+    /**
+     * Quantity/number of clusters
+     */
+    private final int cluster;
+    /**
+     * Number of restarts
+     */
+    private final int restarts;
+    /**
+     * Termination threshold, initial value 1.0e-7
+     */
+    private double e = 1.0e-7;
+    /**
+     * Relative objective gap for stopping a restart, 0 = no pruning
+     */
+    private double margin = 0.05;
+    /**
+     * Seeding of the initial cluster centers, NONE for a random partition
+     * matrix
+     */
+    private Seeding.Method seeding = Seeding.Method.NONE;
+    /**
+     * Seed of the random numbers of the seeding, initial value 0
+     */
+    private long seed;
+    /**
+     * Maximum number of iterations per restart, 0 = unlimited
+     */
+    private int maxIterations;
+    /**
+     * Weight per object, <code>null</code> weights all objects with 1
+     */
+    private double[] weights;
+    /**
+     * Executor for the restarts, <code>null</code> runs one virtual thread
+     * per restart
+     */
+    private ExecutorService executor;
+    /**
+     * Pool for the parallel calculation steps, <code>null</code> uses the
+     * common pool
+     */
+    private ForkJoinPool pool;
+    /**
+     * Minimum number of objects per parallel task, initial value 1024
+     */
+    private int grainSize = 1024;
+    /**
+     * Last objective function per restart of the last run
+     */
+    private double[] objectives;
+    /**
+     * Stopped restarts of the last run
+     */
+    private boolean[] pruned;
+    /**
+     * Index of the best restart of the last run
+     */
+    private int best = -1;
+
+    /**
+     * Generates restarts of FCM
+     *
+     * @param object       Objects
+     * @param clusterCount Number of clusters
+     * @param restarts     Number of restarts
+     */
+    public MultiStart(FeatureMatrix object, int clusterCount, int restarts) {
+        if (restarts < 1) throw new IllegalArgumentException("restarts must be positive");
+        this.object = object;
+        this.cluster = clusterCount;
+        this.restarts = restarts;
+    }
+
+    /**
+     * Generates restarts of FCM
+     *
+     * @param object       Objects
+     * @param clusterCount Number of clusters
+     * @param restarts     Number of restarts
+     * @param e            Termination threshold, initial value 1.0e-7
+     */
+    public MultiStart(FeatureMatrix object, int clusterCount, int restarts, double e) {
+        this(object, clusterCount, restarts);
+        this.e = e;
+    }
+
+    /**
+     * Runs the restarts and returns the best
+     *
+     * @return FCM-Object of the restart with the smallest objective function,
+     * after determineClusterCenters
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException   if a restart failed
+     */
+    public FuzzyCMeans fuzzyCMeans() throws InterruptedException, ExecutionException {
+        objectives = new double[restarts];
+        Arrays.fill(objectives, Double.NaN);
+        pruned = new boolean[restarts];
+        best = -1;
+        List<Callable<FuzzyCMeans>> jobs = new ArrayList<>(restarts);
+        for (int r = 0; r < restarts; r++) {
+            int restart = r;
+            jobs.add(() -> restart(restart));
+        }
+        List<FuzzyCMeans> results;
+        try (ClusterBatch batch = executor != null ? new ClusterBatch(executor) : new ClusterBatch()) {
+            results = batch.invokeAll(jobs);
+        }
+        for (int r = 0; r < restarts; r++) {
+            if (pruned[r]) continue;
+            if (best < 0 || objectives[r] < objectives[best] || Double.isNaN(objectives[best])) best = r;
+        }
+        if (best < 0) best = 0;
+        return results.get(best);
+    }
+
+    /**
+     * Runs the restarts of the initial FCM pass, then PCM from the best one
+     *
+     * @param repeat Number of PCM passes for determination of the cluster
+     *               centers
+     * @return PCM-Object after determineClusterCenters
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException   if a restart failed
+     */
+    public PossibilisticCMeans possibilisticCMeans(int repeat) throws InterruptedException, ExecutionException {
+        FuzzyCMeans fcm = fuzzyCMeans();
+        PossibilisticCMeans pcm = new PossibilisticCMeans(object, cluster, repeat, e);
+        pcm.setPool(pool);
+        pcm.setGrainSize(grainSize);
+        pcm.setMaxIterations(maxIterations);
+        pcm.setWeights(weights);
+        pcm.determineClusterCenters(fcm.getVi(), null, false);
+        return pcm;
+    }
+
+    /**
+     * Runs one restart, reporting its objective function after each iteration
+     */
+    private FuzzyCMeans restart(int r) {
+        FuzzyCMeans fcm = new FuzzyCMeans(object, cluster, e);
+        fcm.setPool(pool);
+        fcm.setGrainSize(grainSize);
+        fcm.setMaxIterations(maxIterations);
+        fcm.setWeights(weights);
+        double[] before = {Double.NaN};
+        fcm.setIterationListener(metrics -> {
+            if (observe(r, metrics.getObjective(), before[0], metrics.getIteration())) fcm.stop();
+            before[0] = metrics.getObjective();
+        });
+        // Step 1: Initialization
+        if (seeding == Seeding.Method.NONE) {
+            fcm.determineClusterCenters(true, false);
+        } else {
+            double[] vi = Seeding.seed(seeding, object, weights, cluster, seed + r, pool, grainSize);
+            fcm.determineClusterCenters(ClusterMath.toRows(vi, cluster, object.getDimensions()), false);
+        }
+        return fcm;
+    }
+
+    /**
+     * Records the objective function of a restart and decides whether to stop
+     * it
+     *
+     * @param r         Restart
+     * @param objective Objective function of the iteration
+     * @param before    Objective function of the previous iteration
+     * @param iteration Iteration
+     * @return <code>true</code> to stop the restart
+     */
+    private synchronized boolean observe(int r, double objective, double before, int iteration) {
+        objectives[r] = objective;
+        if (margin == 0.0 || iteration < WARMUP) return false;
+        double min = Double.NaN;
+        for (int i = 0; i < restarts; i++) {
+            if (pruned[i] || Double.isNaN(objectives[i])) continue;
+            if (Double.isNaN(min) || objectives[i] < min) min = objectives[i];
+        }
+        double gap = objective - min;
+        double decrease = Math.max(0.0, before - objective);
+        if (gap > margin * Math.abs(min) && gap > 10 * decrease) {
+            pruned[r] = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the last objective function per restart of the last run
+     *
+     * @return Objective function per restart, or <code>null</code> before a run
+     */
+    public double[] getObjectives() {
+        return objectives == null ? null : objectives.clone();
+    }
+
+    /**
+     * Returns the stopped restarts of the last run
+     *
+     * @return <code>true</code> per stopped restart, or <code>null</code>
+     * before a run
+     */
+    public boolean[] getPruned() {
+        return pruned == null ? null : pruned.clone();
+    }
+
+    /**
+     * Returns the index of the best restart of the last run
+     *
+     * @return Restart, -1 before a run
+     */
+    public int getBest() {
+        return best;
+    }
+
+    /**
+     * Set the relative objective gap for stopping a restart
+     *
+     * @param margin Gap, 0 = no pruning, initial value 0.05
+     */
+    public void setPruningMargin(double margin) {
+        if (!(margin >= 0.0)) throw new IllegalArgumentException("margin must not be negative");
+        this.margin = margin;
+    }
+
+    /**
+     * Set the seeding of the initial cluster centers; restart r uses seed + r
+     *
+     * @param seeding Seeding method, NONE (initial value) for a random
+     *                partition matrix per restart
+     */
+    public void setSeeding(Seeding.Method seeding) {
+        if (seeding == null) throw new IllegalArgumentException("seeding must not be null");
+        this.seeding = seeding;
+    }
+
+    /**
+     * Set the seed of the random numbers of the seeding
+     *
+     * @param seed Seed, initial value 0
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Set the maximum number of iterations per restart
+     *
+     * @param maxIterations Iterations, 0 = unlimited (initial value)
+     */
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations < 0) throw new IllegalArgumentException("maxIterations must not be negative");
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Set a weight per object, see {@link FuzzyCMeans#setWeights(double[])}
+     *
+     * @param weights Weight per object (not copied), <code>null</code> weights
+     *                all objects with 1 (initial value)
+     */
+    public void setWeights(double[] weights) {
+        FuzzyCMeans.checkWeights(weights, object.getCount());
+        this.weights = weights;
+    }
+
+    /**
+     * Set the executor for the restarts. The executor is not shut down by this
+     * class.
+     *
+     * @param executor Executor, <code>null</code> runs one virtual thread per
+     *                 restart (initial value)
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Set the pool for the parallel calculation steps of all restarts. The
+     * pool is not shut down by this class.
+     *
+     * @param pool Pool, <code>null</code> uses the common pool
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Set the minimum number of objects per parallel task
+     *
+     * @param grainSize Objects per task, initial value 1024
+     */
+    public void setGrainSize(int grainSize) {
+        if (grainSize < 1) throw new IllegalArgumentException("grainSize must be positive");
+        this.grainSize = grainSize;
+    }
+}
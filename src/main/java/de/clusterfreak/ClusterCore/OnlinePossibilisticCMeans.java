@@ -0,0 +1,208 @@
+package de.clusterfreak.ClusterCore;
+
+/**
+ * Online Possibilistic-C-Means with exponential forgetting
+ * <p>
+ * Starts from a PCM model (e.g. {@link PossibilisticCMeans#getModel()} of a
+ * batch run over a first window) and updates it with one object at a time:
+ *
+ * <pre>
+ * Step 1: Membership values of the object to the current model (returned)
+ * Step 2: Decay of all sums by lambda, adding the object
+ *         S(k) = lambda * S(k) + mik^m * x,  W(k) = lambda * W(k) + mik^m
+ *         A(k) = lambda * A(k) + mik^m * mik^m * dik&sup2;
+ * Step 3: New cluster centers vi = S / W
+ * </PRE>
+ * <p>
+ * The sums are those of the batch steps 2 and ni, with the weight of an
+ * object decaying by lambda per later object; an object counts half after
+ * ln(0.5) / ln(lambda) objects. As within a batch PCM pass, ni is held fixed:
+ * updated with every object, ni and the memberships reinforce each other and
+ * ni shrinks to 0 or, with sum mik^m * dik&sup2;, grows until all clusters
+ * merge. {@link #refreshNi()} sets ni = A / W from the decayed sums, like the
+ * start of a new pass, e.g. every few half lives. The fuzzifier m is that of
+ * the model. Each update costs O(c * d) time, the memory is O(c * d)
+ * independent of the number of objects. The sums start with the
+ * model's cluster centers and ni at the weight of a full memory,
+ * 1 / (c * (1 - lambda)) per cluster, so the first objects do not pull the
+ * centers away. The memberships of step 1 are those of the model before the
+ * object is added, as needed for anomaly scores.
+ * <p>
+ * A single object must not be used by several threads at the same time.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ * @see PossibilisticCMeans
+ */
+public class OnlinePossibilisticCMeans {
+    /**
+     * Quantity/number of clusters
+     */
+    private final int cluster;
+    /**
+     * Number of dimensions per object
+     */
+    private final int dimensions;
+    /**
+     * Decay factor per object
+     */
+    private final double lambda;
+    /**
+     * Fuzzifier of the model
+     */
+    private final Fuzzifier m;
+    /**
+     * Cluster centers vi, row-major
+     */
+    private final double[] vi;
+    /**
+     * ni per cluster
+     */
+    private final double[] ni;
+    /**
+     * Decayed sum of mik^m * object per cluster, row-major
+     */
+    private final double[] sum;
+    /**
+     * Decayed sum of mik^m per cluster
+     */
+    private final double[] weight;
+    /**
+     * Decayed sum of mik^m * mik^m * dik&sup2; per cluster
+     */
+    private final double[] niSum;
+    /**
+     * Squared distances of the current object
+     */
+    private final double[] d2;
+    /**
+     * Number of objects added
+     */
+    private long count;
+
+    /**
+     * Generates the online PCM from a PCM model
+     *
+     * @param model  PCM model, e.g. of a batch run over a first window
+     * @param lambda Decay factor per object in (0, 1), e.g. 0.999 for a half
+     *               life of about 700 objects
+     */
+    public OnlinePossibilisticCMeans(ClusterModel model, double lambda) {
+        if (!model.isPossibilistic()) throw new IllegalArgumentException("PCM model required");
+        if (!(lambda > 0.0 && lambda < 1.0)) throw new IllegalArgumentException("lambda must be in (0, 1)");
+        this.cluster = model.getCluster();
+        this.dimensions = model.getDimensions();
+        this.lambda = lambda;
+        this.m = Fuzzifier.of(model.getM());
+        this.vi = ClusterMath.flatten(model.getVi(), dimensions);
+        this.ni = model.getNi();
+        this.sum = new double[cluster * dimensions];
+        this.weight = new double[cluster];
+        this.niSum = new double[cluster];
+        this.d2 = new double[cluster];
+        double prior = 1 / (cluster * (1 - lambda));
+        for (int k = 0; k < cluster; k++) {
+            for (int j = 0; j < dimensions; j++) sum[k * dimensions + j] = prior * vi[k * dimensions + j];
+            weight[k] = prior;
+            niSum[k] = prior * ni[k];
+        }
+    }
+
+    /**
+     * Adds one object and writes its membership values to the model before
+     * the update
+     *
+     * @param x         Coordinates
+     * @param xOffset   Start of the object in x
+     * @param out       Membership values
+     * @param outOffset Start of the cluster values in out
+     */
+    public void update(double[] x, int xOffset, double[] out, int outOffset) {
+        // Step 1: Membership values
+        for (int k = 0; k < cluster; k++) {
+            d2[k] = ClusterMath.squaredDistance(x, xOffset, vi, k * dimensions, dimensions);
+            double u = m.possibilisticMembership(d2[k], ni[k]);
+            out[outOffset + k] = Double.isNaN(u) ? 1.0 : u;
+        }
+        for (int k = 0; k < cluster; k++) {
+            double um = m.power(out[outOffset + k]);
+            int v = k * dimensions;
+            // Step 2: Decay and adding of the object
+            for (int j = 0; j < dimensions; j++) sum[v + j] = lambda * sum[v + j] + um * x[xOffset + j];
+            weight[k] = lambda * weight[k] + um;
+            niSum[k] = lambda * niSum[k] + um * um * d2[k];
+            // Step 3: New cluster center
+            for (int j = 0; j < dimensions; j++) vi[v + j] = sum[v + j] / weight[k];
+        }
+        count++;
+    }
+
+    /**
+     * Adds a small batch of objects one after another
+     *
+     * @param object Objects
+     * @param out    Membership values, row-major (object * clusters + cluster)
+     */
+    public void update(FeatureMatrix object, double[] out) {
+        if (object.getDimensions() != dimensions)
+            throw new IllegalArgumentException("objects have " + object.getDimensions() + " dimensions, expected " + dimensions);
+        int n = object.getCount();
+        if (out.length < (long) n * cluster)
+            throw new IllegalArgumentException("out has " + out.length + " values, expected " + (long) n * cluster);
+        double[] buffer = object.rowBuffer();
+        for (int i = 0; i < n; i++) update(object.row(i, buffer), object.rowOffset(i), out, i * cluster);
+    }
+
+    /**
+     * Sets ni from the decayed sums, ni = sum mik^m * mik^m * dik&sup2; / sum
+     * mik^m, like the start of a new batch PCM pass
+     */
+    public void refreshNi() {
+        for (int k = 0; k < cluster; k++) ni[k] = niSum[k] / weight[k];
+    }
+
+    /**
+     * Returns the current model
+     *
+     * @return PCM model with copies of the cluster centers and ni
+     */
+    public ClusterModel getModel() {
+        return new ClusterModel(vi, cluster, dimensions, m.m, ni);
+    }
+
+    /**
+     * Returns cluster centers vi
+     *
+     * @return vi
+     */
+    public double[][] getVi() {
+        return ClusterMath.toRows(vi, cluster, dimensions);
+    }
+
+    /**
+     * Returns ni per cluster
+     *
+     * @return ni
+     */
+    public double[] getNi() {
+        return ni.clone();
+    }
+
+    /**
+     * Returns the number of objects added
+     *
+     * @return Objects
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the decay factor per object
+     *
+     * @return lambda
+     */
+    public double getLambda() {
+        return lambda;
+    }
+}
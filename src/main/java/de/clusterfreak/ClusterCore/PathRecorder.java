@@ -0,0 +1,146 @@
+package de.clusterfreak.ClusterCore;
+
+/**
+ * Search path of the cluster centers
+ * <p>
+ * The cluster centers of every iteration are copied into one primitive array.
+ * Without a capacity the array grows by doubling; with a capacity it is a
+ * ring buffer that keeps the cluster centers of the last iterations only.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+public class PathRecorder {
+    /**
+     * Quantity/number of clusters
+     */
+    private final int cluster;
+    /**
+     * Number of dimensions per object
+     */
+    private final int dimensions;
+    /**
+     * Maximum number of recorded iterations, 0 = unbounded
+     */
+    private final int capacity;
+    /**
+     * Cluster centers per iteration, row-major (iteration, cluster, dimension)
+     */
+    private double[] path;
+    /**
+     * Number of iterations recorded in total
+     */
+    private long recorded;
+
+    /**
+     * Generates a path recorder
+     *
+     * @param cluster    Number of clusters
+     * @param dimensions Number of dimensions per object
+     * @param capacity   Maximum number of recorded iterations, 0 = unbounded
+     */
+    public PathRecorder(int cluster, int dimensions, int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity must not be negative");
+        this.cluster = cluster;
+        this.dimensions = dimensions;
+        this.capacity = capacity;
+        this.path = new double[(capacity > 0 ? capacity : 16) * cluster * dimensions];
+    }
+
+    /**
+     * Records the cluster centers of one iteration
+     *
+     * @param vi Cluster centers, row-major
+     */
+    void record(double[] vi) {
+        int size = cluster * dimensions;
+        int slot;
+        if (capacity > 0) {
+            slot = (int) (recorded % capacity);
+        } else {
+            if ((recorded + 1) * size > path.length) {
+                double[] grown = new double[path.length * 2];
+                System.arraycopy(path, 0, grown, 0, path.length);
+                path = grown;
+            }
+            slot = (int) recorded;
+        }
+        System.arraycopy(vi, 0, path, slot * size, size);
+        recorded++;
+    }
+
+    /**
+     * Removes all recorded iterations
+     */
+    public void clear() {
+        recorded = 0;
+    }
+
+    /**
+     * Returns the number of iterations held
+     *
+     * @return Iterations, at most the capacity
+     */
+    public int size() {
+        return (int) (capacity > 0 ? Math.min(recorded, capacity) : recorded);
+    }
+
+    /**
+     * Returns the number of iterations recorded in total, including the ones
+     * overwritten in the ring buffer
+     *
+     * @return Iterations
+     */
+    public long getRecorded() {
+        return recorded;
+    }
+
+    /**
+     * Returns the maximum number of recorded iterations
+     *
+     * @return capacity, 0 = unbounded
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns a coordinate of a recorded cluster center
+     *
+     * @param iteration Iteration, 0 = oldest held
+     * @param k         Cluster
+     * @param j         Dimension
+     * @return Coordinate
+     */
+    public double get(int iteration, int k, int j) {
+        if (iteration < 0 || iteration >= size())
+            throw new IndexOutOfBoundsException("iteration " + iteration + " of " + size());
+        return path[(slot(iteration) * cluster + k) * dimensions + j];
+    }
+
+    /**
+     * Returns the held search path, oldest iteration first, with one row per
+     * cluster center; the layout of {@link FuzzyCMeans#getViPath()}
+     *
+     * @return Search path
+     */
+    public double[][] toArray() {
+        int size = size();
+        double[][] rows = new double[size * cluster][dimensions];
+        for (int t = 0; t < size; t++) {
+            int base = slot(t) * cluster;
+            for (int k = 0; k < cluster; k++) {
+                System.arraycopy(path, (base + k) * dimensions, rows[t * cluster + k], 0, dimensions);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the slot of a held iteration
+     */
+    private int slot(int iteration) {
+        if (capacity == 0 || recorded <= capacity) return iteration;
+        return (int) ((recorded + iteration) % capacity);
+    }
+}
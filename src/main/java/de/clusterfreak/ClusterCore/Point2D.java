@@ -3,7 +3,7 @@ package de.clusterfreak.ClusterCore;
 /**
  * Point with 2D coordinates
  *
- * @version 1.3.3 (2021-05-13)
+ * @version 1.3.4 (2026-10-16)
  * @author Thomas Heym
  */
 public class Point2D {
@@ -27,29 +27,14 @@ public class Point2D {
     }
 
     /**
-     * Convert Point2D to PointPixel
+     * Convert Point2D to PointPixel (see {@link Rasterizer} for the pixel
+     * bounds and bulk conversion)
      *
      * @param pixelOffset
      *            pixel Offset
      * @return pixel point
      */
     public PointPixel toPointPixel(int pixelOffset) {
-        PointPixel pointPixel = new PointPixel(0, 0);
-        int x = 0;
-        int y = 0;
-        double o;
-        double p;
-        for (int t = 0; t < pixelOffset; t++) {
-            o = (double) t / pixelOffset;
-            p = o + (double) 1 / pixelOffset;
-            p = Math.round(p * 100.) / 100.;
-            if ((this.x >= o) & (this.x < p))
-                x = t;
-            if ((this.y >= o) & (this.y < p))
-                y = t;
-        }
-        pointPixel.x = x;
-        pointPixel.y = y;
-        return pointPixel;
+        return new PointPixel(Rasterizer.pixel(this.x, pixelOffset), Rasterizer.pixel(this.y, pixelOffset));
     }
 }
\ No newline at end of file
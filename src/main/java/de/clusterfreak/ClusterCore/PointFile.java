@@ -0,0 +1,170 @@
+package de.clusterfreak.ClusterCore;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary point file
+ * <p>
+ * Objects, cluster centers or partition matrices as a row-major matrix of
+ * doubles or floats behind a fixed header, all little-endian:
+ *
+ * <pre>
+ * Offset  Size  Content
+ *  0      4     Magic "CFPF"
+ *  4      4     Version (1)
+ *  8      4     Type of the values (4 = float, 8 = double)
+ * 12      4     Number of columns (dimensions)
+ * 16      8     Number of rows (count)
+ * 24      8     reserved (0)
+ * 32            Values, row-major
+ * </PRE>
+ * <p>
+ * {@link #map(Path)} maps the values into memory without parsing; the
+ * returned {@link FeatureMatrix} reads them off-heap. The number of rows is
+ * limited to an int; rows times columns is not, mapped objects are indexed
+ * with long offsets. The partition matrix of an estimator (objects times
+ * clusters) still has to fit into one array and is checked when the estimator
+ * is generated.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+public class PointFile {
+    /**
+     * Magic number "CFPF"
+     */
+    private static final int MAGIC = 0x46504643;
+    /**
+     * Version of the file format
+     */
+    private static final int VERSION = 1;
+    /**
+     * Size of the header in bytes
+     */
+    private static final int HEADER = 32;
+    /**
+     * Values per write buffer
+     */
+    private static final int BUFFER = 8192;
+
+    private PointFile() {
+    }
+
+    /**
+     * Maps a point file, the mapping is released by the garbage collector
+     *
+     * @param path File
+     * @return Feature matrix on the mapped values
+     * @throws IOException if the file cannot be read or is not a point file
+     */
+    public static FeatureMatrix map(Path path) throws IOException {
+        return map(path, Arena.ofAuto());
+    }
+
+    /**
+     * Maps a point file
+     *
+     * @param path  File
+     * @param arena Lifetime of the mapping; must allow access from the threads
+     *              of the clustering pool, e.g. {@link Arena#ofShared()}
+     * @return Feature matrix on the mapped values
+     * @throws IOException if the file cannot be read or is not a point file
+     */
+    public static FeatureMatrix map(Path path, Arena arena) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) throw new IOException(path + ": header incomplete");
+            }
+            header.flip();
+            if (header.getInt(0) != MAGIC) throw new IOException(path + ": not a point file");
+            if (header.getInt(4) != VERSION) throw new IOException(path + ": unsupported version " + header.getInt(4));
+            int type = header.getInt(8);
+            int dimensions = header.getInt(12);
+            long count = header.getLong(16);
+            ValueLayout layout;
+            if (type == Double.BYTES) {
+                layout = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+            } else if (type == Float.BYTES) {
+                layout = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+            } else {
+                throw new IOException(path + ": unsupported value type " + type);
+            }
+            if (dimensions < 1 || count < 0 || count > Integer.MAX_VALUE)
+                throw new IOException(path + ": invalid size " + count + " x " + dimensions);
+            long size = count * dimensions * type;
+            if (channel.size() < HEADER + size) throw new IOException(path + ": values incomplete");
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, HEADER, size, arena);
+            return new FeatureMatrix(segment, layout, (int) count, dimensions);
+        }
+    }
+
+    /**
+     * Writes objects as doubles
+     *
+     * @param path   File
+     * @param object Objects
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, FeatureMatrix object) throws IOException {
+        write(path, object, false);
+    }
+
+    /**
+     * Writes objects
+     *
+     * @param path            File
+     * @param object          Objects
+     * @param singlePrecision <code>true</code> writes floats, <code>false</code> doubles
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, FeatureMatrix object, boolean singlePrecision) throws IOException {
+        int count = object.getCount();
+        int dimensions = object.getDimensions();
+        int type = singlePrecision ? Float.BYTES : Double.BYTES;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(HEADER, BUFFER * type)).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(type).putInt(dimensions).putLong(count).putLong(0L);
+            flush(channel, buffer);
+            double[] row = object.rowBuffer();
+            for (int i = 0; i < count; i++) {
+                double[] x = object.row(i, row);
+                int xo = object.rowOffset(i);
+                for (int j = xo; j < xo + dimensions; j++) {
+                    if (buffer.remaining() < type) flush(channel, buffer);
+                    if (singlePrecision) buffer.putFloat((float) x[j]);
+                    else buffer.putDouble(x[j]);
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes a matrix as doubles, e.g. cluster centers
+     * ({@link FuzzyCMeans#getVi()}) or a partition matrix
+     * ({@link FuzzyCMeans#getMik()})
+     *
+     * @param path   File
+     * @param matrix Rows of equal length
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, double[][] matrix) throws IOException {
+        write(path, FeatureMatrix.of(matrix), false);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+}
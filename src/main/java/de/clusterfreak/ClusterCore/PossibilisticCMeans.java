@@ -1,11 +1,8 @@
 package de.clusterfreak.ClusterCore;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.RecursiveTask;
-import java.util.stream.IntStream;
 
 /**
  * Possibilistic-C-Means (PCM)
@@ -19,9 +16,13 @@ import java.util.stream.IntStream;
  * Step 4: Termination or repetition
  * Step 5: optional - Repeat calculation (steps 2 to 4)
  * </PRE>
+ * <p>
+ * All results are held per object, so independent PCM-Objects may run
+ * concurrently (see {@link ClusterBatch}). A single PCM-Object must not be
+ * used by several threads at the same time.
  *
  * @author Thomas Heym
- * @version 1.3.0 (2024-12-07)
+ * @version 1.4.0 (2026-10-16)
  * @see FuzzyCMeans
  */
 public class PossibilisticCMeans {
@@ -30,9 +31,9 @@ public class PossibilisticCMeans {
      */
     private final int cluster;
     /**
-     * Euclidean distance norm, exponent, initial value 2
+     * Fuzzifier m, initial value 2
      */
-    private final static int m = 2;
+    private final Fuzzifier m;
     /**
      * Termination threshold, initial value 1.0e-7
      */
@@ -40,15 +41,62 @@ public class PossibilisticCMeans {
     /**
      * Each Object represents 1 cluster vi
      */
-    private final double[][] object;
+    private final FeatureMatrix object;
+    /**
+     * Cluster centers vi, row-major
+     */
+    private double[] vi;
+    /**
+     * Complete search path, if recorded
+     */
+    private PathRecorder path;
+    /**
+     * Maximum number of iterations of the search path, 0 = unbounded
+     */
+    private int pathCapacity;
+    /**
+     * Listener for the metrics of every iteration, or <code>null</code>
+     */
+    private IterationListener listener;
+    /**
+     * Metrics passed to the listener, reused
+     */
+    private final IterationMetrics metrics = new IterationMetrics();
+    /**
+     * Additional termination criteria and relaxation
+     */
+    private final ConvergenceControl control = new ConvergenceControl();
+    /**
+     * Pool for the parallel calculation steps, <code>null</code> uses the
+     * common pool
+     */
+    private ForkJoinPool pool;
+    /**
+     * Minimum number of objects per parallel task, initial value 1024
+     */
+    private int grainSize = 1024;
     /**
-     * Cluster centers vi
+     * Seeding of the initial FCM cluster centers, initial value NONE
      */
-    private double[][] vi;
+    private Seeding.Method seeding = Seeding.Method.NONE;
     /**
-     * Complete search path
+     * Membership values below are treated as 0 and skipped by the spatial
+     * index, 0 = all membership values calculated (initial value)
      */
-    private double[][] viPath;
+    private double membershipThreshold;
+    /**
+     * Weight per object, <code>null</code> weights all objects with 1
+     */
+    private double[] weights;
+    /**
+     * Tolerance of the distance bounds, 0 = all objects calculated in every
+     * step 3
+     */
+    private double boundTolerance;
+    /**
+     * Initial FCM-Object while its pass runs, for {@link #stop()}
+     */
+    private volatile FuzzyCMeans initial;
     /**
      * npcm
      */
@@ -56,12 +104,17 @@ public class PossibilisticCMeans {
     /**
      * Number of PCM passes
      */
-    private int repeat;
+    private final int repeat;
     /**
      * Partition matrix (Membership values of the k-th object to the i-th
-     * cluster)
+     * cluster), row-major
+     */
+    private double[] mik;
+    /**
+     * Partition matrix in single precision, row-major, if the objects are
+     * stored as floats (see {@link SinglePrecision})
      */
-    private static double[][] getMik;
+    private float[] mikSingle;
 
     /**
      * Generates PCM-Object from a set of Points
@@ -72,9 +125,28 @@ public class PossibilisticCMeans {
      * @see FuzzyCMeans
      */
     public PossibilisticCMeans(double[][] object, int clusterCount, int repeat) {
+        this(FeatureMatrix.of(object), clusterCount, repeat);
+    }
+
+    /**
+     * Generates PCM-Object from a feature matrix with any number of dimensions
+     *
+     * @param object       Objects
+     * @param clusterCount Number of clusters
+     * @param repeat       Number of PCM passes for determination of the cluster centers
+     * @see FuzzyCMeans
+     */
+    public PossibilisticCMeans(FeatureMatrix object, int clusterCount, int repeat) {
+        this(object, clusterCount, repeat, Fuzzifier.DEFAULT);
+    }
+
+    private PossibilisticCMeans(FeatureMatrix object, int clusterCount, int repeat, Fuzzifier m) {
+        // mapped objects may exceed an array, the partition matrix may not
+        ClusterMath.size(object.getCount(), clusterCount);
         this.object = object;
         this.cluster = clusterCount;
-        this.vi = new double[cluster][2];
+        this.m = m;
+        this.vi = new double[cluster * object.getDimensions()];
         this.ni = new double[cluster];
         this.repeat = repeat;
     }
@@ -89,11 +161,37 @@ public class PossibilisticCMeans {
      * @see FuzzyCMeans
      */
     public PossibilisticCMeans(double[][] object, int clusterCount, int repeat, double e) {
-        this.object = object;
-        this.cluster = clusterCount;
-        this.vi = new double[cluster][2];
-        this.ni = new double[cluster];
-        this.repeat = repeat;
+        this(FeatureMatrix.of(object), clusterCount, repeat, e);
+    }
+
+    /**
+     * Generates PCM-Object from a feature matrix with any number of dimensions
+     *
+     * @param object       Objects
+     * @param clusterCount Number of clusters
+     * @param repeat       Number of PCM passes for determination of the cluster centers
+     * @param e            Termination threshold, initial value 1.0e-7
+     * @see FuzzyCMeans
+     */
+    public PossibilisticCMeans(FeatureMatrix object, int clusterCount, int repeat, double e) {
+        this(object, clusterCount, repeat);
+        this.e = e;
+    }
+
+    /**
+     * Generates PCM-Object with a fuzzifier m other than 2, used by the
+     * initial FCM pass as well, see
+     * {@link FuzzyCMeans#FuzzyCMeans(FeatureMatrix, int, double, double)}
+     *
+     * @param object       Objects
+     * @param clusterCount Number of clusters
+     * @param repeat       Number of PCM passes for determination of the cluster centers
+     * @param e            Termination threshold, initial value 1.0e-7
+     * @param m            Fuzzifier, greater than 1, initial value 2
+     * @see FuzzyCMeans
+     */
+    public PossibilisticCMeans(FeatureMatrix object, int clusterCount, int repeat, double e, double m) {
+        this(object, clusterCount, repeat, Fuzzifier.of(m));
         this.e = e;
     }
 
@@ -107,129 +205,600 @@ public class PossibilisticCMeans {
      * are at the end.
      */
     public double[][] determineClusterCenters(boolean random, boolean returnPath) {
-        double euclideanDistance;
-        /*
-         * When false return only the class centers
-         */
-        List<Point2D> viPathRec = new ArrayList<>();
+        control.stopped = false;
         // Step 1: Initialization
-        FuzzyCMeans fcm;
-        if (e == 1.0e-7) {
-            fcm = new FuzzyCMeans(object, cluster);
+        FuzzyCMeans fcm = initialFuzzyCMeans();
+        initial = fcm;
+        fcm.determineClusterCenters(random, returnPath);
+        initial = null;
+        return iterate(fcm);
+    }
+
+    /**
+     * Returns the cluster centers, starting from given cluster centers and ni
+     * (warm start), e.g. the result of a previous run on slightly changed
+     * objects. If ni is given, the initial FCM pass and the calculation of ni
+     * are skipped and only the last PCM pass is repeated with the given ni.
+     *
+     * @param initialVi  Initial cluster centers (clusterCount rows)
+     * @param initialNi  Initial ni ({@link #getNi()}), or <code>null</code> to
+     *                   start with a FCM pass from initialVi
+     * @param returnPath Determines whether return the complete search path. Values:
+     *                   <code>true</code>, <code>false</code>
+     * @return Cluster centers and search path (optional); The cluster centers
+     * are at the end.
+     */
+    public double[][] determineClusterCenters(double[][] initialVi, double[] initialNi, boolean returnPath) {
+        return determineClusterCenters(initialVi, initialNi, null, returnPath);
+    }
+
+    /**
+     * Returns the cluster centers, starting from given cluster centers, ni
+     * and/or a given partition matrix (warm start). If ni is given, the initial
+     * FCM pass and the calculation of ni are skipped and only the last PCM pass
+     * is repeated with the given ni. With a partition matrix the first
+     * termination check compares against it.
+     *
+     * @param initialVi  Initial cluster centers (clusterCount rows), or
+     *                   <code>null</code> to determine them from initialMik
+     * @param initialNi  Initial ni ({@link #getNi()}), or <code>null</code> to
+     *                   start with a FCM pass
+     * @param initialMik Previous partition matrix (one row per object), or
+     *                   <code>null</code>
+     * @param returnPath Determines whether return the complete search path. Values:
+     *                   <code>true</code>, <code>false</code>
+     * @return Cluster centers and search path (optional); The cluster centers
+     * are at the end.
+     */
+    public double[][] determineClusterCenters(double[][] initialVi, double[] initialNi, double[][] initialMik, boolean returnPath) {
+        control.stopped = false;
+        int n = object.getCount();
+        int d = object.getDimensions();
+        // Step 1: Initialization
+        if (initialNi == null) {
+            FuzzyCMeans fcm = initialFuzzyCMeans();
+            initial = fcm;
+            fcm.determineClusterCenters(initialVi, initialMik, returnPath);
+            initial = null;
+            return iterate(fcm);
+        }
+        if (initialNi.length != cluster)
+            throw new IllegalArgumentException("initialNi has " + initialNi.length + " values, expected " + cluster);
+        System.arraycopy(initialNi, 0, ni, 0, cluster);
+        double[] mik = null;
+        float[] mikSingle = null;
+        if (initialMik != null) {
+            if (initialMik.length != n)
+                throw new IllegalArgumentException("initialMik has " + initialMik.length + " rows, expected " + n);
+            mik = ClusterMath.flatten(initialMik, cluster);
+        } else if (single()) {
+            mikSingle = new float[n * cluster];
+        } else {
+            mik = new double[n * cluster];
+        }
+        if (initialVi != null) {
+            if (initialVi.length != cluster)
+                throw new IllegalArgumentException("initialVi has " + initialVi.length + " rows, expected " + cluster);
+            vi = ClusterMath.flatten(initialVi, d);
+        } else if (initialMik != null) {
+            // Step 2: Determination of the cluster centers
+            invoke(new CenterSumTask(mik, object, cluster, m, weights, 0, n, grainSize)).centers(vi);
         } else {
-            fcm = new FuzzyCMeans(object, cluster, e);
+            throw new IllegalArgumentException("initialVi or initialMik required");
+        }
+        path = returnPath ? new PathRecorder(cluster, d, pathCapacity) : null;
+        if (mik != null && single()) {
+            mikSingle = SinglePrecision.toFloat(mik);
+            mik = null;
+        }
+        return iterate(mik, mikSingle, true);
+    }
+
+    /**
+     * Returns whether the partition matrix is calculated in single precision:
+     * objects stored as floats, without spatial index and distance bounds
+     *
+     * @return <code>true</code> for {@link SinglePrecision}
+     */
+    private boolean single() {
+        return object.isSinglePrecision() && membershipThreshold == 0.0 && boundTolerance == 0.0;
+    }
+
+    /**
+     * Returns the FCM-Object for the initialization
+     *
+     * @return FCM-Object with the same objects, threshold, fuzzifier,
+     * termination criteria, pool, path capacity, listener, seeding and weights
+     */
+    private FuzzyCMeans initialFuzzyCMeans() {
+        FuzzyCMeans fcm = new FuzzyCMeans(object, cluster, e, m.m);
+        fcm.setPool(pool);
+        fcm.setGrainSize(grainSize);
+        fcm.setPathCapacity(pathCapacity);
+        fcm.setIterationListener(listener);
+        control.copyTo(fcm.control);
+        fcm.setSeeding(seeding);
+        fcm.setWeights(weights);
+        fcm.setBoundTolerance(boundTolerance);
+        return fcm;
+    }
+
+    /**
+     * PCM passes starting from the result of the initial FCM pass; the search
+     * path continues the one of the FCM pass
+     *
+     * @param fcm FCM-Object after determineClusterCenters
+     * @return Cluster centers
+     */
+    private double[][] iterate(FuzzyCMeans fcm) {
+        path = fcm.getPath();
+        vi = ClusterMath.flatten(fcm.getVi(), object.getDimensions());
+        return iterate(fcm.partition(), fcm.partitionSingle(), false);
+    }
+
+    /**
+     * PCM passes (steps 2 to 5), recording into the current search path
+     *
+     * @param mik       Partition matrix before the first pass, or
+     *                  <code>null</code> if single precision
+     * @param mikSingle Single precision partition matrix before the first
+     *                  pass, or <code>null</code>
+     * @param warm <code>true</code> for a single pass with the current
+     *             cluster centers and ni
+     * @return Cluster centers
+     */
+    private double[][] iterate(double[] mik, float[] mikSingle, boolean warm) {
+        int n = object.getCount();
+        double euclideanDistance;
+        int passes = warm ? 1 : repeat;
+        // spatial index: built once per run; the passes run on the objects
+        // and the partition matrix in tree order, the leaf ranges per cluster
+        // cover the membership values that may be non-zero in mik and mikNext
+        KdTree tree = membershipThreshold > 0.0 ? new KdTree(object) : null;
+        FeatureMatrix object = tree != null ? tree.matrix() : this.object;
+        if (mikSingle != null && !single()) {
+            mik = SinglePrecision.toDouble(mikSingle);
+            mikSingle = null;
         }
-        double[][] getViPath = fcm.determineClusterCenters(random, true);
-        for (double[] doubles : getViPath) viPathRec.add(new Point2D(doubles[0], doubles[1]));
-        vi = fcm.getVi();
-        double[][] mik = fcm.getMik();
-        ForkJoinPool pool = new ForkJoinPool();
-        do { // while (repeat>0)
-            repeat--;
+        if (tree != null) mik = tree.toTreeOrder(mik, cluster);
+        double[] weight = tree != null && weights != null ? tree.toTreeOrder(weights, 1) : weights;
+        double total = weights != null ? FuzzyCMeans.total(weights) : n;
+        // distance bounds without the spatial index: the partition matrix is
+        // updated in place
+        CenterBounds bounds = tree == null && boundTolerance > 0.0 ? new CenterBounds(n, cluster, boundTolerance, m.m) : null;
+        double[] mikNext = mikSingle != null ? null : bounds == null ? new double[mik.length] : mik;
+        float[] mikSingleNext = mikSingle != null ? new float[mikSingle.length] : null;
+        KdTree.Ranges[] ranges = tree != null ? KdTree.Ranges.of(cluster, true) : null;
+        KdTree.Ranges[] rangesNext = tree != null ? KdTree.Ranges.of(cluster, false) : null;
+        double[] r2 = tree != null ? new double[cluster] : null;
+        metrics.pass = 0;
+        metrics.ni = ni;
+        do { // while (passes>0)
+            passes--;
+            metrics.pass++;
+            metrics.iteration = 0;
             /*
              * Perform calculation of ni
              */
-            boolean ni_calc = true;
-            do { // while (euclideanDistance>=e)
-                // Step 2: Determination of the cluster centers
-                // --> Step 5: optional - Repeat calculation (steps 2 to 4)
-                IntStream.range(0, vi.length).parallel().forEach(k -> {
-                    double mikm, mikm0 = 0.0, mikm1 = 0.0, mikms = 0.0;
-                    for (int i = 0; i < mik.length; i++) {
-                        mikm = Math.pow(mik[i][k], m);
-                        mikm0 += mikm * object[i][0];
-                        mikm1 += mikm * object[i][1];
-                        mikms += mikm;
-                    }
-                    vi[k][0] = mikm0 / mikms;
-                    vi[k][1] = mikm1 / mikms;
-                });
+            boolean ni_calc = !warm;
+            boolean repeat;
+            double previous = Double.POSITIVE_INFINITY;
+            control.start(vi.length);
+            if (bounds != null) bounds.start();
+            long time = listener != null ? System.nanoTime() : 0L;
+            // Step 2: Determination of the cluster centers
+            if (!warm && mikSingle != null)
+                invoke(new SinglePrecision.CenterSumTask(mikSingle, object, cluster, m, weight, 0, n, grainSize)).centers(vi);
+            else if (!warm) invoke(new CenterSumTask(mik, object, cluster, m, weight, 0, n, grainSize)).centers(vi);
+            warm = false;
+            do { // while (repeat)
                 // record cluster points
-                if (returnPath) {
-                    for (double[] doubles : vi) viPathRec.add(new Point2D(doubles[0], doubles[1]));
-                }
+                if (path != null) path.record(vi);
                 // Step 3: Calculate the new partition matrix and ni
-                double[][] mik_before = new double[mik.length][cluster];
-                for (int i = 0; i < mik.length; i++) {
-                    System.arraycopy(mik[i], 0, mik_before[i], 0, cluster);
-                }
-                double[] miks = new double[vi.length];
                 if (ni_calc) {
                     // Calculate ni (Distance from the class center to the point
                     // with a membership value of 0.5 to the actual cluster)
-                    // initial ni = 0
-                    Arrays.fill(ni, 0.0);
-                    Arrays.fill(miks, 0.0);
-                    // ni = sum mik&sup2;*dik&sup2;
-                    IntStream.range(0, mik.length).parallel().forEach(i -> {
-                        for (int k = 0; k < vi.length; k++) {
-                            double dik = Math.sqrt(Math.pow(object[i][0] - vi[k][0], 2) + Math.pow(object[i][1] - vi[k][1], 2));
-                            ni[k] += Math.pow(Math.pow(mik[i][k], 2), 2) * Math.pow(dik, 2);
-                            miks[k] += Math.pow(mik[i][k], 2);
-                        }
-                    });
                     // ni = sum(mik&sup2;*dik&sup2;) / sum mik&sup2;
-                    for (int i = 0; i < vi.length; i++) {
-                        ni[i] /= miks[i];
+                    double[] niSums = mikSingle != null
+                            ? invoke(new SinglePrecision.NiTask(mikSingle, vi, object, cluster, m, weight, 0, n, grainSize))
+                            : invoke(new NiTask(mik, vi, object, cluster, m, weight, 0, n, grainSize));
+                    for (int k = 0; k < cluster; k++) {
+                        ni[k] = niSums[k] / niSums[cluster + k];
                     }
                     ni_calc = false;
                 }
-                pool.invoke(new UpdatePartitionMatrixTask(mik, vi, object, cluster, ni));
-                // calculate euclidean distance
-                euclideanDistance = IntStream.range(0, vi.length).parallel().mapToDouble(k ->
-                        IntStream.range(0, mik.length).mapToDouble(i ->
-                                Math.pow((mik[i][k] - mik_before[i][k]), 2)
-                        ).sum()
-                ).sum();
-                euclideanDistance = Math.sqrt(euclideanDistance);
+                // new partition matrix, euclidean distance to the previous one
+                // and the sums of the next step 2 in one pass
+                long niTime = listener != null ? System.nanoTime() : 0L;
+                ClusterStatistics statistics;
+                long evaluations = (long) n * cluster;
+                if (tree != null) {
+                    // u < threshold if dik&sup2; > ni * (1 / threshold - 1)^(m-1)
+                    for (int k = 0; k < cluster; k++) r2[k] = m.radius2(ni[k], membershipThreshold);
+                    statistics = invoke(new IndexedUpdateTask(tree, mik, mikNext, vi, cluster, m, ni, weight, total, r2, ranges, rangesNext, 0, cluster, grainSize));
+                    KdTree.Ranges[] swapRanges = ranges;
+                    ranges = rangesNext;
+                    rangesNext = swapRanges;
+                    evaluations = 0;
+                    for (int k = 0; k < cluster; k++) evaluations += ranges[k].objects;
+                } else if (bounds != null) {
+                    bounds.advance(vi);
+                    statistics = bounds.update(invoke(new CenterBounds.UpdateTask(bounds, mik, vi, object, cluster, m, ni, weight, false, 0, n, grainSize)));
+                    evaluations = statistics.evaluations;
+                } else if (mikSingle != null) {
+                    statistics = invoke(new SinglePrecision.UpdateTask(mikSingle, mikSingleNext, vi, object, cluster, m, ni, weight, false, 0, n, grainSize));
+                    float[] swap = mikSingle;
+                    mikSingle = mikSingleNext;
+                    mikSingleNext = swap;
+                } else {
+                    statistics = invoke(new UpdatePartitionMatrixTask(mik, mikNext, vi, object, cluster, m, ni, weight, 0, n, grainSize));
+                }
+                double[] swap = mik;
+                mik = mikNext;
+                mikNext = swap;
+                long membershipTime = listener != null ? System.nanoTime() : 0L;
+                euclideanDistance = Math.sqrt(statistics.change);
+                double threshold = mikSingle != null ? SinglePrecision.threshold(e, euclideanDistance, previous, statistics) : e;
+                previous = euclideanDistance;
+                repeat = control.repeat(statistics, euclideanDistance, threshold);
+                long convergenceTime = listener != null ? System.nanoTime() : 0L;
+                // --> Step 5: optional - Repeat calculation (steps 2 to 4)
+                if (repeat) repeat = control.update(statistics, vi);
+                if (listener != null) {
+                    long centerTime = System.nanoTime();
+                    metrics.iteration++;
+                    metrics.delta = euclideanDistance;
+                    metrics.shift = control.shift();
+                    metrics.objective = statistics.objective;
+                    metrics.evaluations = evaluations;
+                    metrics.membershipNanos = membershipTime - niTime;
+                    metrics.convergenceNanos = convergenceTime - membershipTime;
+                    // step 2 and ni of a pass count for its first iteration
+                    metrics.centerNanos = (centerTime - convergenceTime) + (niTime - time);
+                    listener.iteration(metrics);
+                    time = System.nanoTime();
+                }
             }
             // Step 4: Termination or repetition
-            while (euclideanDistance >= e);
-        } while (repeat > 0);
-        getMik = mik;
+            while (repeat);
+        } while (passes > 0 && !control.stopped);
+        this.mik = tree != null ? tree.toObjectOrder(mik, cluster) : mik;
+        this.mikSingle = mikSingle;
         // Value return
-        if (returnPath) {
-            double[][] viPathCut = new double[viPathRec.size()][2];
-            for (int k = 0; k < viPathCut.length; k++) {
-                Point2D cut = viPathRec.get(k);
-                viPathCut[k][0] = cut.x;
-                viPathCut[k][1] = cut.y;
+        return getVi();
+    }
+
+    /**
+     * RecursiveTask for updating the partition matrix, split into ranges of
+     * objects
+     * <p>
+     * One pass per object writes the memberships into a second buffer and
+     * accumulates the squared change and the cluster center sums of the next
+     * iteration; weighted objects contribute their weight times mik^m.
+     */
+    static class UpdatePartitionMatrixTask extends RecursiveTask<ClusterStatistics> {
+        private final double[] mikBefore;
+        private final double[] mik;
+        private final double[] vi;
+        private final FeatureMatrix object;
+        private final int cluster;
+        private final Fuzzifier m;
+        private final double[] ni;
+        private final double[] weight;
+        private final int from;
+        private final int to;
+        private final int grainSize;
+
+        public UpdatePartitionMatrixTask(double[] mikBefore, double[] mik, double[] vi, FeatureMatrix object, int cluster, Fuzzifier m, double[] ni, double[] weight, int from, int to, int grainSize) {
+            this.mikBefore = mikBefore;
+            this.mik = mik;
+            this.vi = vi;
+            this.object = object;
+            this.cluster = cluster;
+            this.m = m;
+            this.ni = ni;
+            this.weight = weight;
+            this.from = from;
+            this.to = to;
+            this.grainSize = grainSize;
+        }
+
+        @Override
+        protected ClusterStatistics compute() {
+            if (to - from > grainSize) {
+                int mid = (from + to) >>> 1;
+                UpdatePartitionMatrixTask left = new UpdatePartitionMatrixTask(mikBefore, mik, vi, object, cluster, m, ni, weight, from, mid, grainSize);
+                left.fork();
+                ClusterStatistics right = new UpdatePartitionMatrixTask(mikBefore, mik, vi, object, cluster, m, ni, weight, mid, to, grainSize).compute();
+                return left.join().merge(right);
             }
-            setViPath(viPathCut);
+            int d = object.getDimensions();
+            double[] buffer = object.rowBuffer();
+            ClusterStatistics statistics = new ClusterStatistics(cluster, d);
+            Kernel kernel = Kernel.DEFAULT;
+            double[] centers = kernel.centers(vi, cluster, d);
+            double[] d2 = new double[cluster];
+            double[] uik = new double[cluster];
+            double[] wik = new double[cluster];
+            for (int i = from; i < to; i++) {
+                double[] x = object.row(i, buffer);
+                int xo = object.rowOffset(i);
+                double wi = weight != null ? weight[i] : 1.0;
+                kernel.squaredDistances(x, xo, centers, cluster, d, d2);
+                m.possibilisticMemberships(d2, ni, uik, cluster);
+                for (int k = 0; k < cluster; k++) {
+                    int ik = i * cluster + k;
+                    double u = uik[k];
+                    if (Double.isNaN(u)) u = 1.0;
+                    mik[ik] = u;
+                    double diff = u - mikBefore[ik];
+                    statistics.change += diff * diff;
+                    double um = m.power(u);
+                    statistics.objective += wi * (um * d2[k] + ni[k] * m.power(1 - u));
+                    wik[k] = wi * um;
+                }
+                statistics.addAll(wik, x, xo);
+            }
+            return statistics;
         }
-        return vi;
     }
 
     /**
-     * RecursiveTask for updating the partition matrix
+     * RecursiveTask for updating the partition matrix (in tree order) with the
+     * spatial index, split into clusters and, per cluster, into chunks of the
+     * objects in its leaf ranges
+     * <p>
+     * Per cluster, a range query returns the objects within the cutoff radius
+     * r&sup2; = ni * (1 / threshold - 1)^(m-1) of the center; only these get a
+     * membership value and contribute to the cluster center sums. All other
+     * membership values are 0 and add ni (times their weight) to the objective
+     * function. The entries of the previous iteration but one are cleared in
+     * the target buffer first; entries of the previous iteration outside the
+     * radius add their previous value to the change. Clearing, updating and
+     * the change of the dropped entries each run over chunks of at most
+     * grainSize objects, so a few clusters with many objects in their radius
+     * do not run serially.
      */
-    private static class UpdatePartitionMatrixTask extends RecursiveTask<Void> {
-        private final double[][] mik;
-        private final double[][] vi;
-        private final double[][] object;
+    private static class IndexedUpdateTask extends RecursiveTask<ClusterStatistics> {
+        /**
+         * Clear the entries of the previous iteration but one
+         */
+        private static final int CLEAR = 0;
+        /**
+         * New membership values within the radius
+         */
+        private static final int UPDATE = 1;
+        /**
+         * Change of the entries that dropped to 0
+         */
+        private static final int DROPPED = 2;
+        private final KdTree tree;
+        private final double[] mikBefore;
+        private final double[] mik;
+        private final double[] vi;
         private final int cluster;
+        private final Fuzzifier m;
         private final double[] ni;
+        private final double[] weight;
+        private final double total;
+        private final double[] r2;
+        private final KdTree.Ranges[] rangesBefore;
+        private final KdTree.Ranges[] ranges;
+        private final int kFrom;
+        private final int kTo;
+        private final int grainSize;
 
-        public UpdatePartitionMatrixTask(double[][] mik, double[][] vi, double[][] object, int cluster, double[] ni) {
+        public IndexedUpdateTask(KdTree tree, double[] mikBefore, double[] mik, double[] vi, int cluster, Fuzzifier m, double[] ni, double[] weight, double total, double[] r2, KdTree.Ranges[] rangesBefore, KdTree.Ranges[] ranges, int kFrom, int kTo, int grainSize) {
+            this.tree = tree;
+            this.mikBefore = mikBefore;
             this.mik = mik;
             this.vi = vi;
-            this.object = object;
             this.cluster = cluster;
+            this.m = m;
             this.ni = ni;
+            this.weight = weight;
+            this.total = total;
+            this.r2 = r2;
+            this.rangesBefore = rangesBefore;
+            this.ranges = ranges;
+            this.kFrom = kFrom;
+            this.kTo = kTo;
+            this.grainSize = grainSize;
         }
 
         @Override
-        protected Void compute() {
-            for (int k = 0; k < vi.length; k++) {
-                for (int i = 0; i < mik.length; i++) {
-                    mik[i][k] = 1 / (1 + (Math.pow(Math.sqrt(Math.pow(object[i][0] - vi[k][0], 2) + Math.pow(object[i][1] - vi[k][1], 2)), 2)) / ni[k]);
-                    if (Double.isNaN(mik[i][k])) mik[i][k] = 1.0;
+        protected ClusterStatistics compute() {
+            if (kTo - kFrom > 1) {
+                int mid = (kFrom + kTo) >>> 1;
+                IndexedUpdateTask left = new IndexedUpdateTask(tree, mikBefore, mik, vi, cluster, m, ni, weight, total, r2, rangesBefore, ranges, kFrom, mid, grainSize);
+                left.fork();
+                ClusterStatistics right = new IndexedUpdateTask(tree, mikBefore, mik, vi, cluster, m, ni, weight, total, r2, rangesBefore, ranges, mid, kTo, grainSize).compute();
+                return left.join().merge(right);
+            }
+            int k = kFrom;
+            KdTree.Ranges stale = ranges[k];
+            new RangeTask(CLEAR, k, stale, 0, stale.all ? tree.count : stale.objects).invoke();
+            KdTree.Ranges near = ranges[k];
+            tree.query(vi, k * tree.dimensions, r2[k], near);
+            ClusterStatistics statistics = new RangeTask(UPDATE, k, near, 0, near.objects).invoke();
+            // every membership value outside the radius is 0
+            statistics.objective += ni[k] * total;
+            KdTree.Ranges before = rangesBefore[k];
+            return statistics.merge(new RangeTask(DROPPED, k, before, 0, before.all ? tree.count : before.objects).invoke());
+        }
+
+        /**
+         * One phase of a cluster over the objects [from, to) of its leaf
+         * ranges, counted across the ranges
+         */
+        private final class RangeTask extends RecursiveTask<ClusterStatistics> {
+            private final int phase;
+            private final int k;
+            private final KdTree.Ranges area;
+            private final int from;
+            private final int to;
+
+            RangeTask(int phase, int k, KdTree.Ranges area, int from, int to) {
+                this.phase = phase;
+                this.k = k;
+                this.area = area;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected ClusterStatistics compute() {
+                if (to - from > grainSize) {
+                    int mid = (from + to) >>> 1;
+                    RangeTask left = new RangeTask(phase, k, area, from, mid);
+                    left.fork();
+                    ClusterStatistics right = new RangeTask(phase, k, area, mid, to).compute();
+                    return left.join().merge(right);
+                }
+                int d = tree.dimensions;
+                ClusterStatistics statistics = new ClusterStatistics(cluster, d);
+                if (area.all) {
+                    scan(statistics, from, to);
+                    return statistics;
+                }
+                // positions of the objects [from, to) in the leaf ranges
+                for (int r = area.locate(from), seen = from; seen < to && r < area.size; r++) {
+                    int first = area.bounds[2 * r] + Math.max(0, seen - area.start[r]);
+                    int last = Math.min(area.bounds[2 * r + 1], first + to - seen);
+                    scan(statistics, first, last);
+                    seen += last - first;
+                }
+                return statistics;
+            }
+
+            private void scan(ClusterStatistics statistics, int first, int last) {
+                int d = tree.dimensions;
+                double[] x = tree.points;
+                switch (phase) {
+                    case CLEAR:
+                        for (int p = first; p < last; p++) mik[p * cluster + k] = 0.0;
+                        break;
+                    case UPDATE:
+                        for (int p = first; p < last; p++) {
+                            double d2 = ClusterMath.squaredDistance(x, p * d, vi, k * d, d);
+                            if (!(d2 <= r2[k])) continue;
+                            int ik = p * cluster + k;
+                            double wp = weight != null ? weight[p] : 1.0;
+                            double u = m.possibilisticMembership(d2, ni[k]);
+                            if (Double.isNaN(u)) u = 1.0;
+                            mik[ik] = u;
+                            double diff = u - mikBefore[ik];
+                            statistics.change += diff * diff;
+                            double um = m.power(u);
+                            // replaces the ni of a membership value of 0
+                            statistics.objective += wp * (um * d2 + ni[k] * m.power(1 - u) - ni[k]);
+                            statistics.add(k, wp * um, x, p * d);
+                        }
+                        break;
+                    default:
+                        for (int p = first; p < last; p++) {
+                            int ik = p * cluster + k;
+                            if (mik[ik] == 0.0) statistics.change += mikBefore[ik] * mikBefore[ik];
+                        }
                 }
             }
-            return null;
         }
     }
 
+    /**
+     * RecursiveTask for the (weighted) sums of ni, split into ranges of
+     * objects and reduced by adding the partial sums
+     */
+    static class NiTask extends RecursiveTask<double[]> {
+        private final double[] mik;
+        private final double[] vi;
+        private final FeatureMatrix object;
+        private final int cluster;
+        private final Fuzzifier m;
+        private final double[] weight;
+        private final int from;
+        private final int to;
+        private final int grainSize;
+
+        public NiTask(double[] mik, double[] vi, FeatureMatrix object, int cluster, Fuzzifier m, double[] weight, int from, int to, int grainSize) {
+            this.mik = mik;
+            this.vi = vi;
+            this.object = object;
+            this.cluster = cluster;
+            this.m = m;
+            this.weight = weight;
+            this.from = from;
+            this.to = to;
+            this.grainSize = grainSize;
+        }
+
+        /**
+         * @return sum mik^m*mik^m*dik&sup2; per cluster, followed by sum mik^m per cluster
+         */
+        @Override
+        protected double[] compute() {
+            if (to - from > grainSize) {
+                int mid = (from + to) >>> 1;
+                NiTask left = new NiTask(mik, vi, object, cluster, m, weight, from, mid, grainSize);
+                left.fork();
+                double[] sums = new NiTask(mik, vi, object, cluster, m, weight, mid, to, grainSize).compute();
+                double[] leftSums = left.join();
+                for (int k = 0; k < sums.length; k++) sums[k] += leftSums[k];
+                return sums;
+            }
+            int d = object.getDimensions();
+            double[] buffer = object.rowBuffer();
+            double[] sums = new double[2 * cluster];
+            double[] centers = Kernel.DEFAULT.centers(vi, cluster, d);
+            double[] d2 = new double[cluster];
+            for (int i = from; i < to; i++) {
+                double[] x = object.row(i, buffer);
+                int xo = object.rowOffset(i);
+                double wi = weight != null ? weight[i] : 1.0;
+                Kernel.DEFAULT.squaredDistances(x, xo, centers, cluster, d, d2);
+                for (int k = 0; k < cluster; k++) {
+                    double mikm = m.power(mik[i * cluster + k]);
+                    sums[k] += wi * mikm * mikm * d2[k];
+                    sums[cluster + k] += wi * mikm;
+                }
+            }
+            return sums;
+        }
+    }
+
+    /**
+     * Runs a parallel calculation step. Objects that fit into one task are
+     * calculated in the calling thread.
+     *
+     * @param task Task over all objects
+     * @param <T>  Result type
+     * @return Result of the task
+     */
+    private <T> T invoke(ForkJoinTask<T> task) {
+        if (object.getCount() <= grainSize) return task.invoke();
+        return (pool != null ? pool : ForkJoinPool.commonPool()).invoke(task);
+    }
+
+    /**
+     * Set the pool for the parallel calculation steps, also used for the
+     * initial FCM pass. The pool is not shut down by this class.
+     *
+     * @param pool Pool, <code>null</code> uses the common pool
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Set the minimum number of objects per parallel task
+     *
+     * @param grainSize Objects per task, initial value 1024
+     */
+    public void setGrainSize(int grainSize) {
+        if (grainSize < 1) throw new IllegalArgumentException("grainSize must be positive");
+        this.grainSize = grainSize;
+    }
+
     /**
      * Returns the partition matrix (Membership values of the k-th object to the
      * i-th cluster)
@@ -237,7 +806,17 @@ public class PossibilisticCMeans {
      * @return Partition matrix
      */
     public double[][] getMik() {
-        return getMik;
+        if (mikSingle != null) return ClusterMath.toRows(SinglePrecision.toDouble(mikSingle), object.getCount(), cluster);
+        return mik == null ? null : ClusterMath.toRows(mik, object.getCount(), cluster);
+    }
+
+    /**
+     * Returns the partition matrix, row-major (not a copy)
+     *
+     * @return Partition matrix, or <code>null</code> if single precision
+     */
+    double[] partition() {
+        return mik;
     }
 
     /**
@@ -245,8 +824,9 @@ public class PossibilisticCMeans {
      *
      * @param setMik partition matrix
      */
-    public static void setMik(double[][] setMik) {
-        getMik = setMik;
+    public void setMik(double[][] setMik) {
+        mik = setMik == null ? null : ClusterMath.flatten(setMik, cluster);
+        mikSingle = null;
     }
 
     /**
@@ -255,16 +835,186 @@ public class PossibilisticCMeans {
      * @return vi
      */
     public double[][] getVi() {
-        return vi;
+        return ClusterMath.toRows(vi, cluster, object.getDimensions());
+    }
+
+    /**
+     * Returns the fitted model for scoring new objects, taken after
+     * determineClusterCenters
+     *
+     * @return PCM model with copies of the cluster centers and ni
+     */
+    public ClusterModel getModel() {
+        return new ClusterModel(vi, cluster, object.getDimensions(), m.m, ni);
+    }
+
+    /**
+     * Set a weight per object, see {@link FuzzyCMeans#setWeights(double[])};
+     * also used for the initial FCM pass
+     *
+     * @param weights Weight per object (not copied), <code>null</code> weights
+     *                all objects with 1 (initial value)
+     */
+    public void setWeights(double[] weights) {
+        FuzzyCMeans.checkWeights(weights, object.getCount());
+        this.weights = weights;
+    }
+
+    /**
+     * Returns ni per cluster (squared distance from the cluster center with a
+     * membership value of 0.5), e.g. for a warm start
+     *
+     * @return ni
+     */
+    public double[] getNi() {
+        return ni.clone();
+    }
+
+    /**
+     * Set the maximum number of iterations per pass, also for the initial FCM
+     * pass; a pass terminates after it even if the termination threshold is
+     * not reached
+     *
+     * @param maxIterations Iterations, 0 = unlimited (initial value)
+     */
+    public void setMaxIterations(int maxIterations) {
+        control.setMaxIterations(maxIterations);
+    }
+
+    /**
+     * Set the tolerance of the center shift, also for the initial FCM pass; a
+     * pass terminates when the cluster centers move less (euclidean distance
+     * of all centers)
+     *
+     * @param centerTolerance Tolerance, 0 = not used (initial value)
+     */
+    public void setCenterTolerance(double centerTolerance) {
+        control.setCenterTolerance(centerTolerance);
+    }
+
+    /**
+     * Set the tolerance of the relative change of the objective function, also
+     * for the initial FCM pass; a pass terminates when
+     * |J(t-1) - J(t)| &lt;= tolerance * |J(t)|
+     *
+     * @param objectiveTolerance Tolerance, 0 = not used (initial value)
+     */
+    public void setObjectiveTolerance(double objectiveTolerance) {
+        control.setObjectiveTolerance(objectiveTolerance);
+    }
+
+    /**
+     * Set the over-relaxation of the cluster centers, also for the initial FCM
+     * pass: each step 2 moves the cluster centers by the factor times the PCM
+     * step. As soon as two successive steps point in opposite directions, the
+     * pass falls back to the plain step.
+     *
+     * @param relaxation Factor in [1, 2), 1 = none (initial value); 1.3 to 1.5
+     *                   are robust
+     */
+    public void setRelaxation(double relaxation) {
+        control.setRelaxation(relaxation);
+    }
+
+    /**
+     * Requests the running determineClusterCenters to terminate after the
+     * current iteration, also during the initial FCM pass, e.g. from an
+     * iteration listener or another thread; the remaining PCM passes are
+     * skipped. A request before the start of determineClusterCenters is
+     * discarded.
+     */
+    public void stop() {
+        control.stopped = true;
+        FuzzyCMeans fcm = initial;
+        if (fcm != null) fcm.stop();
+    }
+
+    /**
+     * Returns whether the last run was stopped by {@link #stop()}
+     *
+     * @return <code>true</code> if stopped
+     */
+    public boolean isStopped() {
+        return control.stopped;
+    }
+
+    /**
+     * Set the maximum number of iterations kept in the search path, also for
+     * the initial FCM pass. With a limit only the cluster centers of the last
+     * iterations are kept.
+     *
+     * @param pathCapacity Iterations, 0 = unbounded (initial value)
+     */
+    public void setPathCapacity(int pathCapacity) {
+        if (pathCapacity < 0) throw new IllegalArgumentException("pathCapacity must not be negative");
+        this.pathCapacity = pathCapacity;
+    }
+
+    /**
+     * Set the listener for the metrics of every iteration, also of the initial
+     * FCM pass (pass 0)
+     *
+     * @param listener Listener, <code>null</code> for none
+     */
+    public void setIterationListener(IterationListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Set the membership threshold of the spatial index. Membership values
+     * below the threshold are treated as 0: each iteration of the PCM passes
+     * only calculates the objects within the radius
+     * dik&sup2; &lt;= ni * (1 / threshold - 1)^(m-1) of each center, found by a range
+     * query on a k-d tree built once per run. For clusters small compared to
+     * the objects this reduces step 3 from n * c to about n membership
+     * values (see {@link IterationMetrics#getEvaluations()}). The initial FCM
+     * pass is not affected.
+     *
+     * @param membershipThreshold Threshold in [0, 1), 0 = all membership
+     *                            values calculated (initial value)
+     */
+    public void setMembershipThreshold(double membershipThreshold) {
+        if (!(membershipThreshold >= 0.0 && membershipThreshold < 1.0))
+            throw new IllegalArgumentException("membershipThreshold must be in [0, 1)");
+        this.membershipThreshold = membershipThreshold;
+    }
+
+    /**
+     * Set the tolerance of the distance bounds for the initial FCM pass and,
+     * without a membership threshold, the PCM passes, see
+     * {@link FuzzyCMeans#setBoundTolerance(double)}. Each PCM pass starts with
+     * all objects, as ni changes between the passes. As there, the change of
+     * the partition matrix in step 4 covers all objects, the skipped ones with
+     * an upper bound of their change.
+     *
+     * @param boundTolerance Tolerance, e.g. 1.0e-3; 0 = all objects
+     *                       calculated in every iteration (initial value)
+     */
+    public void setBoundTolerance(double boundTolerance) {
+        if (!(boundTolerance >= 0.0 && boundTolerance < 1.0))
+            throw new IllegalArgumentException("boundTolerance must be in [0, 1)");
+        this.boundTolerance = boundTolerance;
+    }
+
+    /**
+     * Set the seeding of the initial FCM cluster centers, see
+     * {@link FuzzyCMeans#setSeeding(Seeding.Method)}
+     *
+     * @param seeding Seeding method, NONE (initial value) for the random or
+     *                round-robin partition matrix
+     */
+    public void setSeeding(Seeding.Method seeding) {
+        if (seeding == null) throw new IllegalArgumentException("seeding must not be null");
+        this.seeding = seeding;
     }
 
     /**
-     * Set viPath
+     * Returns the search path recorder of the last run with returnPath
      *
-     * @param setViPath Set viPath
+     * @return Path recorder, or <code>null</code>
      */
-    private void setViPath(double[][] setViPath) {
-        viPath = setViPath;
+    public PathRecorder getPath() {
+        return path;
     }
 
     /**
@@ -273,6 +1023,6 @@ public class PossibilisticCMeans {
      * @return viPath
      */
     public double[][] getViPath() {
-        return viPath;
+        return path == null ? null : path.toArray();
     }
 }
@@ -0,0 +1,344 @@
+package de.clusterfreak.ClusterCore;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Rasterization of objects and membership values on a square pixel grid
+ * <p>
+ * Maps coordinates in [0, 1) to pixelOffset pixels per axis with the same
+ * result as {@link Point2D#toPointPixel(int)}: pixel t covers
+ * [t / pixelOffset, p) with the upper bound p rounded to two decimals, the
+ * last matching pixel wins and a coordinate without a pixel maps to 0. The
+ * lower bounds increase and the upper bounds do not decrease with t, so the
+ * pixel is found arithmetically: t = floor(x * pixelOffset) if x is below
+ * its upper bound, else 0.
+ * <p>
+ * Grids are row-major (y * pixelOffset + x) and rendered in parallel: the
+ * density by ranges of objects with one grid per task, merged on join; the
+ * membership values of a {@link ClusterModel} at the pixel centers by ranges
+ * of rows.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+public class Rasterizer {
+    /**
+     * Pixels per axis
+     */
+    private final int pixelOffset;
+    /**
+     * Lower bound t / pixelOffset per pixel
+     */
+    private final double[] lower;
+    /**
+     * Upper bound per pixel, rounded to two decimals
+     */
+    private final double[] upper;
+    /**
+     * Pool for the parallel calculation steps, <code>null</code> uses the
+     * common pool
+     */
+    private ForkJoinPool pool;
+    /**
+     * Minimum number of objects per parallel task, initial value 65536
+     */
+    private int grainSize = 65536;
+
+    /**
+     * Generates a rasterizer
+     *
+     * @param pixelOffset Pixels per axis
+     */
+    public Rasterizer(int pixelOffset) {
+        if (pixelOffset < 1) throw new IllegalArgumentException("pixelOffset must be positive");
+        this.pixelOffset = pixelOffset;
+        this.lower = new double[pixelOffset + 1];
+        this.upper = new double[pixelOffset];
+        for (int t = 0; t <= pixelOffset; t++) lower[t] = (double) t / pixelOffset;
+        for (int t = 0; t < pixelOffset; t++) upper[t] = Math.round((lower[t] + (double) 1 / pixelOffset) * 100.) / 100.;
+    }
+
+    /**
+     * Returns the pixel of a coordinate, identical to one axis of
+     * {@link Point2D#toPointPixel(int)}
+     *
+     * @param v           Coordinate
+     * @param pixelOffset Pixels per axis
+     * @return Pixel, 0 if the coordinate is outside of all pixels
+     */
+    public static int pixel(double v, int pixelOffset) {
+        if (pixelOffset < 1 || !(v >= 0.0)) return 0;
+        // largest t with t / pixelOffset <= v
+        int t = (int) Math.min(pixelOffset - 1, Math.floor(v * pixelOffset));
+        if (t + 1 < pixelOffset && (double) (t + 1) / pixelOffset <= v) t++;
+        if ((double) t / pixelOffset > v) t--;
+        if (t < 0) return 0;
+        double o = (double) t / pixelOffset;
+        double p = o + (double) 1 / pixelOffset;
+        p = Math.round(p * 100.) / 100.;
+        return v < p ? t : 0;
+    }
+
+    /**
+     * Returns the pixel of a coordinate from the precalculated bounds
+     *
+     * @param v Coordinate
+     * @return Pixel, 0 if the coordinate is outside of all pixels
+     */
+    private int pixel(double v) {
+        if (!(v >= 0.0)) return 0;
+        int t = (int) Math.min(pixelOffset - 1, v * pixelOffset);
+        if (lower[t + 1] <= v && t + 1 < pixelOffset) t++;
+        else if (lower[t] > v) t--;
+        if (t < 0) return 0;
+        return v < upper[t] ? t : 0;
+    }
+
+    /**
+     * Returns the pixel of a point
+     *
+     * @param x x
+     * @param y y
+     * @return pixel point
+     */
+    public PointPixel toPointPixel(double x, double y) {
+        return new PointPixel(pixel(x), pixel(y));
+    }
+
+    /**
+     * Writes the pixel index (y * pixelOffset + x) of each object, using the
+     * first two dimensions
+     *
+     * @param object Objects
+     * @param out    Pixel index per object
+     */
+    public void pixels(FeatureMatrix object, int[] out) {
+        check(object);
+        if (out.length < object.getCount())
+            throw new IllegalArgumentException("out has " + out.length + " values, expected " + object.getCount());
+        invoke(new PixelTask(object, out, 0, object.getCount()), object.getCount());
+    }
+
+    /**
+     * Returns the number of objects per pixel, using the first two dimensions
+     *
+     * @param object Objects
+     * @return Density grid, row-major (pixelOffset * pixelOffset)
+     */
+    public int[] density(FeatureMatrix object) {
+        check(object);
+        return invoke(new DensityTask(object, 0, object.getCount()), object.getCount());
+    }
+
+    /**
+     * Writes the membership values of the pixel centers ((t + 0.5) /
+     * pixelOffset per axis) for a two-dimensional model
+     *
+     * @param model Model
+     * @param out   Membership values, row-major (pixel * clusters + cluster),
+     *              pixelOffset * pixelOffset * clusters values
+     */
+    public void membership(ClusterModel model, double[] out) {
+        if (model.getDimensions() != 2)
+            throw new IllegalArgumentException("model has " + model.getDimensions() + " dimensions, expected 2");
+        int size = pixelOffset * pixelOffset * model.getCluster();
+        if (out.length < size) throw new IllegalArgumentException("out has " + out.length + " values, expected " + size);
+        invoke(new MembershipTask(model, out, 0, pixelOffset), pixelOffset * pixelOffset);
+    }
+
+    /**
+     * Renders one value per pixel as an image of one color, the alpha channel
+     * proportional to the value (maximum = opaque)
+     *
+     * @param values Values, row-major; pixel i at values[i * stride + offset]
+     * @param stride Values per pixel, e.g. the number of clusters
+     * @param offset Value of the pixel, e.g. the cluster
+     * @param rgb    Color (0xRRGGBB)
+     * @return Image, pixelOffset * pixelOffset
+     */
+    public BufferedImage toImage(double[] values, int stride, int offset, int rgb) {
+        int pixels = pixelOffset * pixelOffset;
+        double max = 0.0;
+        for (int i = 0; i < pixels; i++) max = Math.max(max, values[i * stride + offset]);
+        int[] argb = new int[pixels];
+        for (int i = 0; i < pixels; i++) {
+            int alpha = max > 0.0 ? (int) Math.round(255 * values[i * stride + offset] / max) : 0;
+            argb[i] = (alpha << 24) | (rgb & 0xFFFFFF);
+        }
+        BufferedImage image = new BufferedImage(pixelOffset, pixelOffset, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, pixelOffset, pixelOffset, argb, 0, pixelOffset);
+        return image;
+    }
+
+    /**
+     * Renders a density grid as an image of one color, see
+     * {@link #toImage(double[], int, int, int)}
+     *
+     * @param density Density grid ({@link #density(FeatureMatrix)})
+     * @param rgb     Color (0xRRGGBB)
+     * @return Image, pixelOffset * pixelOffset
+     */
+    public BufferedImage toImage(int[] density, int rgb) {
+        double[] values = new double[density.length];
+        for (int i = 0; i < values.length; i++) values[i] = density[i];
+        return toImage(values, 1, 0, rgb);
+    }
+
+    private void check(FeatureMatrix object) {
+        if (object.getDimensions() < 2)
+            throw new IllegalArgumentException("objects have " + object.getDimensions() + " dimensions, expected 2");
+    }
+
+    /**
+     * Runs a parallel calculation step. Work that fits into one task is
+     * calculated in the calling thread.
+     *
+     * @param task  Task
+     * @param count Number of objects or pixels
+     * @param <T>   Result type
+     * @return Result of the task
+     */
+    private <T> T invoke(ForkJoinTask<T> task, int count) {
+        if (count <= grainSize) return task.invoke();
+        return (pool != null ? pool : ForkJoinPool.commonPool()).invoke(task);
+    }
+
+    /**
+     * Set the pool for the parallel calculation steps. The pool is not shut
+     * down by this class.
+     *
+     * @param pool Pool, <code>null</code> uses the common pool
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Set the minimum number of objects (or pixels) per parallel task; each
+     * density task holds its own grid
+     *
+     * @param grainSize Objects per task, initial value 65536
+     */
+    public void setGrainSize(int grainSize) {
+        if (grainSize < 1) throw new IllegalArgumentException("grainSize must be positive");
+        this.grainSize = grainSize;
+    }
+
+    /**
+     * Returns the pixels per axis
+     *
+     * @return pixelOffset
+     */
+    public int getPixelOffset() {
+        return pixelOffset;
+    }
+
+    /**
+     * RecursiveAction for the pixel indices, split into ranges of objects
+     */
+    private class PixelTask extends RecursiveAction {
+        private final FeatureMatrix object;
+        private final int[] out;
+        private final int from;
+        private final int to;
+
+        PixelTask(FeatureMatrix object, int[] out, int from, int to) {
+            this.object = object;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > grainSize) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new PixelTask(object, out, from, mid), new PixelTask(object, out, mid, to));
+                return;
+            }
+            double[] buffer = object.rowBuffer();
+            for (int i = from; i < to; i++) {
+                double[] x = object.row(i, buffer);
+                int o = object.rowOffset(i);
+                out[i] = pixel(x[o + 1]) * pixelOffset + pixel(x[o]);
+            }
+        }
+    }
+
+    /**
+     * RecursiveTask for the density grid, split into ranges of objects and
+     * reduced by adding the grids
+     */
+    private class DensityTask extends RecursiveTask<int[]> {
+        private final FeatureMatrix object;
+        private final int from;
+        private final int to;
+
+        DensityTask(FeatureMatrix object, int from, int to) {
+            this.object = object;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from > grainSize) {
+                int mid = (from + to) >>> 1;
+                DensityTask left = new DensityTask(object, from, mid);
+                left.fork();
+                int[] grid = new DensityTask(object, mid, to).compute();
+                int[] leftGrid = left.join();
+                for (int i = 0; i < grid.length; i++) grid[i] += leftGrid[i];
+                return grid;
+            }
+            double[] buffer = object.rowBuffer();
+            int[] grid = new int[pixelOffset * pixelOffset];
+            for (int i = from; i < to; i++) {
+                double[] x = object.row(i, buffer);
+                int o = object.rowOffset(i);
+                grid[pixel(x[o + 1]) * pixelOffset + pixel(x[o])]++;
+            }
+            return grid;
+        }
+    }
+
+    /**
+     * RecursiveAction for the membership values of the pixel centers, split
+     * into ranges of rows
+     */
+    private class MembershipTask extends RecursiveAction {
+        private final ClusterModel model;
+        private final double[] out;
+        private final int from;
+        private final int to;
+
+        MembershipTask(ClusterModel model, double[] out, int from, int to) {
+            this.model = model;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if ((to - from) * pixelOffset > grainSize && to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new MembershipTask(model, out, from, mid), new MembershipTask(model, out, mid, to));
+                return;
+            }
+            int cluster = model.getCluster();
+            double[] center = new double[2];
+            for (int py = from; py < to; py++) {
+                center[1] = (py + 0.5) / pixelOffset;
+                for (int px = 0; px < pixelOffset; px++) {
+                    center[0] = (px + 0.5) / pixelOffset;
+                    model.membership(center, 0, out, (py * pixelOffset + px) * cluster);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package de.clusterfreak.ClusterCore;
+
+/**
+ * Scalar loops of the arithmetic kernels, cluster centers and sums row-major
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+final class ScalarKernel implements Kernel {
+
+    @Override
+    public boolean transposed(int dimensions) {
+        return false;
+    }
+
+    @Override
+    public void squaredDistances(double[] x, int xOffset, double[] centers, int cluster, int dimensions, double[] d2) {
+        for (int k = 0; k < cluster; k++) {
+            d2[k] = ClusterMath.squaredDistance(x, xOffset, centers, k * dimensions, dimensions);
+        }
+    }
+
+    @Override
+    public double fuzzyWeights(double[] d2, double[] w, int cluster) {
+        double sum = 0.0;
+        for (int k = 0; k < cluster; k++) {
+            w[k] = 1 / Math.sqrt(d2[k]);
+            sum += w[k];
+        }
+        return sum;
+    }
+
+    @Override
+    public void possibilisticMemberships(double[] d2, double[] ni, double[] u, int cluster) {
+        for (int k = 0; k < cluster; k++) {
+            u[k] = 1 / (1 + d2[k] / ni[k]);
+        }
+    }
+
+    @Override
+    public void accumulate(double[] sum, int sumOffset, double w, double[] x, int xOffset, int dimensions) {
+        for (int j = 0; j < dimensions; j++) sum[sumOffset + j] += w * x[xOffset + j];
+    }
+
+    @Override
+    public void accumulate(double[] sum, double[] w, double[] x, int xOffset, int cluster, int dimensions) {
+        for (int k = 0; k < cluster; k++) accumulate(sum, k * dimensions, w[k], x, xOffset, dimensions);
+    }
+
+    @Override
+    public boolean transposedSingle(int dimensions) {
+        return false;
+    }
+
+    @Override
+    public int singlePadding() {
+        return 0;
+    }
+
+    @Override
+    public void squaredDistances(float[] x, int xOffset, float[] centers, int cluster, int dimensions, float[] d2) {
+        for (int k = 0; k < cluster; k++) {
+            int v = k * dimensions;
+            float sum = 0.0f;
+            for (int j = 0; j < dimensions; j++) {
+                float diff = x[xOffset + j] - centers[v + j];
+                sum += diff * diff;
+            }
+            d2[k] = sum;
+        }
+    }
+
+    @Override
+    public float fuzzyWeights(float[] d2, float[] w, int cluster) {
+        float sum = 0.0f;
+        for (int k = 0; k < cluster; k++) {
+            w[k] = 1 / (float) Math.sqrt(d2[k]);
+            sum += w[k];
+        }
+        return sum;
+    }
+
+    @Override
+    public void possibilisticMemberships(float[] d2, float[] ni, float[] u, int cluster) {
+        for (int k = 0; k < cluster; k++) {
+            u[k] = 1 / (1 + d2[k] / ni[k]);
+        }
+    }
+
+    @Override
+    public void accumulate(float[] sum, float[] w, float[] x, int xOffset, int cluster, int dimensions) {
+        for (int k = 0; k < cluster; k++) {
+            int v = k * dimensions;
+            for (int j = 0; j < dimensions; j++) sum[v + j] += w[k] * x[xOffset + j];
+        }
+    }
+}
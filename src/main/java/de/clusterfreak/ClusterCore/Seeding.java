@@ -0,0 +1,461 @@
+package de.clusterfreak.ClusterCore;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * D&sup2;-weighted seeding of the initial cluster centers
+ * <p>
+ * Picks the initial cluster centers from the objects, each with a probability
+ * proportional to its squared distance to the centers picked so far
+ * (k-means++). This starts close to the solution and cuts the number of FCM
+ * iterations and the variance between runs compared to a random or
+ * round-robin partition matrix.
+ * <p>
+ * {@link #kMeansPlusPlus} needs c passes over the objects, each split into
+ * parallel tasks. {@link #kMeansParallel} (k-means||) needs a few passes
+ * independent of c: each pass samples about 2c candidates at once, the
+ * candidates weighted by the number of their nearest objects are then reduced
+ * to c centers by k-means++. The random numbers are derived from the seed and
+ * the object index, so the result does not depend on the parallel split.
+ * Weighted objects (e.g. a {@link GridCoreset}) are picked with a probability
+ * proportional to weight times squared distance.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+public final class Seeding {
+    /**
+     * Seeding methods
+     */
+    public enum Method {
+        /**
+         * No seeding: random or round-robin partition matrix
+         */
+        NONE,
+        /**
+         * k-means++, c passes over the objects
+         */
+        K_MEANS_PLUS_PLUS,
+        /**
+         * k-means||, a few passes over the objects for large data sets
+         */
+        K_MEANS_PARALLEL
+    }
+
+    /**
+     * Sampling passes of k-means||
+     */
+    private static final int ROUNDS = 5;
+
+    private Seeding() {
+    }
+
+    /**
+     * k-means++ seeding on the common pool
+     *
+     * @param object  Objects
+     * @param cluster Number of clusters
+     * @param seed    Seed of the random numbers
+     * @return Initial cluster centers (cluster rows)
+     */
+    public static double[][] kMeansPlusPlus(FeatureMatrix object, int cluster, long seed) {
+        return ClusterMath.toRows(kMeansPlusPlus(object, null, cluster, seed, null, 1024), cluster, object.getDimensions());
+    }
+
+    /**
+     * k-means|| seeding on the common pool
+     *
+     * @param object  Objects
+     * @param cluster Number of clusters
+     * @param seed    Seed of the random numbers
+     * @return Initial cluster centers (cluster rows)
+     */
+    public static double[][] kMeansParallel(FeatureMatrix object, int cluster, long seed) {
+        return ClusterMath.toRows(kMeansParallel(object, null, cluster, seed, null, 1024), cluster, object.getDimensions());
+    }
+
+    /**
+     * Seeding with the given method
+     *
+     * @param method    K_MEANS_PLUS_PLUS or K_MEANS_PARALLEL
+     * @param object    Objects
+     * @param weights   Weight per object, <code>null</code> for 1
+     * @param cluster   Number of clusters
+     * @param seed      Seed of the random numbers
+     * @param pool      Pool, <code>null</code> uses the common pool
+     * @param grainSize Minimum number of objects per parallel task
+     * @return Initial cluster centers, row-major
+     */
+    static double[] seed(Method method, FeatureMatrix object, double[] weights, int cluster, long seed, ForkJoinPool pool, int grainSize) {
+        return switch (method) {
+            case K_MEANS_PLUS_PLUS -> kMeansPlusPlus(object, weights, cluster, seed, pool, grainSize);
+            case K_MEANS_PARALLEL -> kMeansParallel(object, weights, cluster, seed, pool, grainSize);
+            case NONE -> throw new IllegalArgumentException("no seeding method");
+        };
+    }
+
+    /**
+     * k-means++: c passes, each updates the squared distance of every object
+     * to its nearest center and picks the next center
+     */
+    static double[] kMeansPlusPlus(FeatureMatrix object, double[] weights, int cluster, long seed, ForkJoinPool pool, int grainSize) {
+        int n = object.getCount();
+        int d = object.getDimensions();
+        if (n == 0) throw new IllegalArgumentException("no objects");
+        double[] vi = new double[cluster * d];
+        double[] d2 = new double[n];
+        Arrays.fill(d2, Double.POSITIVE_INFINITY);
+        int pick = first(weights, uniform(seed, 0, 0), n);
+        for (int k = 0; k < cluster; k++) {
+            copyRow(object, pick, vi, k * d);
+            double total = invoke(new DistanceTask(object, weights, vi, k, k + 1, d2, 0, n, grainSize), n, pool, grainSize);
+            if (k + 1 < cluster) pick = sample(d2, weights, total, uniform(seed, k + 1, 0), n);
+        }
+        return vi;
+    }
+
+    /**
+     * One k-means++ step: adds a center picked from the objects with a
+     * probability proportional to the squared distance to the nearest given
+     * center, e.g. to start c + 1 clusters from the result for c
+     *
+     * @param object    Objects
+     * @param weights   Weight per object, <code>null</code> for 1
+     * @param vi        Cluster centers, row-major
+     * @param cluster   Number of given cluster centers
+     * @param seed      Seed of the random numbers
+     * @param pool      Pool, <code>null</code> uses the common pool
+     * @param grainSize Minimum number of objects per parallel task
+     * @return cluster + 1 cluster centers, row-major
+     */
+    static double[] extend(FeatureMatrix object, double[] weights, double[] vi, int cluster, long seed, ForkJoinPool pool, int grainSize) {
+        int n = object.getCount();
+        int d = object.getDimensions();
+        if (n == 0) throw new IllegalArgumentException("no objects");
+        double[] extended = Arrays.copyOf(vi, (cluster + 1) * d);
+        double[] d2 = new double[n];
+        Arrays.fill(d2, Double.POSITIVE_INFINITY);
+        double total = invoke(new DistanceTask(object, weights, vi, 0, cluster, d2, 0, n, grainSize), n, pool, grainSize);
+        copyRow(object, sample(d2, weights, total, uniform(seed, cluster, 0), n), extended, cluster * d);
+        return extended;
+    }
+
+    /**
+     * k-means||: sampling passes with oversampling 2c, then k-means++ on the
+     * weighted candidates
+     */
+    static double[] kMeansParallel(FeatureMatrix object, double[] weights, int cluster, long seed, ForkJoinPool pool, int grainSize) {
+        int n = object.getCount();
+        int d = object.getDimensions();
+        if (n == 0) throw new IllegalArgumentException("no objects");
+        double oversampling = 2.0 * cluster;
+        double[] candidates = new double[cluster * d];
+        int[] chosen = new int[cluster];
+        double[] d2 = new double[n];
+        Arrays.fill(d2, Double.POSITIVE_INFINITY);
+        chosen[0] = first(weights, uniform(seed, 0, 0), n);
+        copyRow(object, chosen[0], candidates, 0);
+        int count = 1;
+        double total = invoke(new DistanceTask(object, weights, candidates, 0, 1, d2, 0, n, grainSize), n, pool, grainSize);
+        for (int round = 1; round <= ROUNDS && total > 0.0; round++) {
+            // each object becomes a candidate with probability l * w * d2 / total
+            int[] picked = invoke(new SampleTask(d2, weights, total, oversampling, seed, round, 0, n, grainSize), n, pool, grainSize);
+            if (picked.length == 0) continue;
+            int first = count;
+            if (count + picked.length > chosen.length) {
+                int capacity = Math.max(2 * chosen.length, count + picked.length);
+                chosen = Arrays.copyOf(chosen, capacity);
+                candidates = Arrays.copyOf(candidates, capacity * d);
+            }
+            for (int i : picked) {
+                chosen[count] = i;
+                copyRow(object, i, candidates, count * d);
+                count++;
+            }
+            total = invoke(new DistanceTask(object, weights, candidates, first, count, d2, 0, n, grainSize), n, pool, grainSize);
+        }
+        if (count <= cluster) return fill(object, weights, candidates, chosen, count, cluster, d2, total, seed, pool, grainSize);
+        // weight of a candidate: (weighted) number of objects nearest to it
+        double[] weight = invoke(new WeightTask(object, weights, candidates, count, 0, n, grainSize), n, pool, grainSize);
+        return weightedKMeansPlusPlus(candidates, weight, count, cluster, d, seed);
+    }
+
+    /**
+     * k-means++ on weighted candidates
+     */
+    private static double[] weightedKMeansPlusPlus(double[] candidates, double[] weight, int count, int cluster, int d, long seed) {
+        double[] vi = new double[cluster * d];
+        double[] d2 = new double[count];
+        double[] p = new double[count];
+        Arrays.fill(d2, Double.POSITIVE_INFINITY);
+        int pick = sample(weight, null, sum(weight), uniform(seed, 0, -1), count);
+        for (int k = 0; k < cluster; k++) {
+            System.arraycopy(candidates, pick * d, vi, k * d, d);
+            double total = 0.0;
+            for (int i = 0; i < count; i++) {
+                d2[i] = Math.min(d2[i], ClusterMath.squaredDistance(candidates, i * d, vi, k * d, d));
+                p[i] = weight[i] * d2[i];
+                total += p[i];
+            }
+            if (k + 1 < cluster) pick = sample(p, null, total, uniform(seed, k + 1, -1), count);
+        }
+        return vi;
+    }
+
+    /**
+     * Fewer candidates than clusters (few distinct objects): the remaining
+     * centers are picked by k-means++ steps, with probability proportional to
+     * w * D&sup2; over the objects not yet chosen; uniformly among them if all
+     * objects coincide with a center
+     */
+    private static double[] fill(FeatureMatrix object, double[] weights, double[] candidates, int[] chosen, int count, int cluster, double[] d2, double total, long seed, ForkJoinPool pool, int grainSize) {
+        int n = object.getCount();
+        int d = object.getDimensions();
+        double[] vi = Arrays.copyOf(candidates, cluster * d);
+        boolean[] taken = new boolean[n];
+        for (int k = 0; k < count; k++) taken[chosen[k]] = true;
+        int free = n;
+        for (boolean t : taken) if (t) free--;
+        for (int k = count; k < cluster; k++) {
+            double u = uniform(seed, k, -2);
+            int pick;
+            if (total > 0.0) {
+                // chosen objects have d2 = 0
+                pick = sample(d2, weights, total, u, n);
+            } else if (free > 0) {
+                pick = -1;
+                for (int skip = (int) (u * free); skip >= 0; skip--) {
+                    do pick++; while (taken[pick]);
+                }
+            } else {
+                pick = (int) (u * n);
+            }
+            if (!taken[pick]) free--;
+            taken[pick] = true;
+            copyRow(object, pick, vi, k * d);
+            if (k + 1 < cluster) total = invoke(new DistanceTask(object, weights, vi, k, k + 1, d2, 0, n, grainSize), n, pool, grainSize);
+        }
+        return vi;
+    }
+
+    /**
+     * Picks the first center: uniformly, or with probability proportional to
+     * the weight
+     */
+    private static int first(double[] weights, double u, int count) {
+        if (weights == null) return (int) (u * count);
+        return sample(weights, null, sum(weights), u, count);
+    }
+
+    /**
+     * Picks an index with probability weights[i] * p[i] / total; uniformly if
+     * total is 0
+     */
+    private static int sample(double[] p, double[] weights, double total, double u, int count) {
+        if (!(total > 0.0)) return (int) (u * count);
+        double target = u * total;
+        double sum = 0.0;
+        for (int i = 0; i < count; i++) {
+            sum += weights != null ? weights[i] * p[i] : p[i];
+            if (sum > target) return i;
+        }
+        // rounding: last index with a positive probability
+        for (int i = count - 1; i > 0; i--) {
+            if (p[i] > 0.0 && (weights == null || weights[i] > 0.0)) return i;
+        }
+        return 0;
+    }
+
+    private static double sum(double[] values) {
+        double sum = 0.0;
+        for (double value : values) sum += value;
+        return sum;
+    }
+
+    private static void copyRow(FeatureMatrix object, int i, double[] target, int offset) {
+        double[] x = object.row(i, object.rowBuffer());
+        System.arraycopy(x, object.rowOffset(i), target, offset, object.getDimensions());
+    }
+
+    /**
+     * Uniform random number in [0, 1) from the seed, an index and a stream
+     * (SplitMix64)
+     */
+    private static double uniform(long seed, long index, long stream) {
+        long z = seed + index * 0x9E3779B97F4A7C15L + stream * 0xD1B54A32D192ED03L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    private static <T> T invoke(ForkJoinTask<T> task, int count, ForkJoinPool pool, int grainSize) {
+        if (count <= grainSize) return task.invoke();
+        return (pool != null ? pool : ForkJoinPool.commonPool()).invoke(task);
+    }
+
+    /**
+     * RecursiveTask updating the squared distance of every object to its
+     * nearest center with the centers kFrom to kTo - 1, returning the
+     * weighted sum
+     */
+    private static class DistanceTask extends RecursiveTask<Double> {
+        private final FeatureMatrix object;
+        private final double[] weights;
+        private final double[] vi;
+        private final int kFrom;
+        private final int kTo;
+        private final double[] d2;
+        private final int from;
+        private final int to;
+        private final int grainSize;
+
+        DistanceTask(FeatureMatrix object, double[] weights, double[] vi, int kFrom, int kTo, double[] d2, int from, int to, int grainSize) {
+            this.object = object;
+            this.weights = weights;
+            this.vi = vi;
+            this.kFrom = kFrom;
+            this.kTo = kTo;
+            this.d2 = d2;
+            this.from = from;
+            this.to = to;
+            this.grainSize = grainSize;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from > grainSize) {
+                int mid = (from + to) >>> 1;
+                DistanceTask left = new DistanceTask(object, weights, vi, kFrom, kTo, d2, from, mid, grainSize);
+                left.fork();
+                double right = new DistanceTask(object, weights, vi, kFrom, kTo, d2, mid, to, grainSize).compute();
+                return left.join() + right;
+            }
+            int d = object.getDimensions();
+            double[] buffer = object.rowBuffer();
+            double sum = 0.0;
+            for (int i = from; i < to; i++) {
+                double[] x = object.row(i, buffer);
+                int xo = object.rowOffset(i);
+                double min = d2[i];
+                for (int k = kFrom; k < kTo; k++) {
+                    min = Math.min(min, ClusterMath.squaredDistance(x, xo, vi, k * d, d));
+                }
+                d2[i] = min;
+                sum += weights != null ? weights[i] * min : min;
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * RecursiveTask sampling the k-means|| candidates of one pass: object i
+     * with probability oversampling * w * d2 / total, the random number from
+     * the seed, the index and the pass; the indices are concatenated in index
+     * order on join
+     */
+    private static class SampleTask extends RecursiveTask<int[]> {
+        private final double[] d2;
+        private final double[] weights;
+        private final double total;
+        private final double oversampling;
+        private final long seed;
+        private final int round;
+        private final int from;
+        private final int to;
+        private final int grainSize;
+
+        SampleTask(double[] d2, double[] weights, double total, double oversampling, long seed, int round, int from, int to, int grainSize) {
+            this.d2 = d2;
+            this.weights = weights;
+            this.total = total;
+            this.oversampling = oversampling;
+            this.seed = seed;
+            this.round = round;
+            this.from = from;
+            this.to = to;
+            this.grainSize = grainSize;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from > grainSize) {
+                int mid = (from + to) >>> 1;
+                SampleTask left = new SampleTask(d2, weights, total, oversampling, seed, round, from, mid, grainSize);
+                left.fork();
+                int[] right = new SampleTask(d2, weights, total, oversampling, seed, round, mid, to, grainSize).compute();
+                int[] leftPicked = left.join();
+                if (right.length == 0) return leftPicked;
+                if (leftPicked.length == 0) return right;
+                int[] picked = Arrays.copyOf(leftPicked, leftPicked.length + right.length);
+                System.arraycopy(right, 0, picked, leftPicked.length, right.length);
+                return picked;
+            }
+            int[] picked = new int[8];
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                double p = weights != null ? weights[i] * d2[i] : d2[i];
+                if (uniform(seed, i, round) * total < oversampling * p) {
+                    if (count == picked.length) picked = Arrays.copyOf(picked, 2 * count);
+                    picked[count++] = i;
+                }
+            }
+            return Arrays.copyOf(picked, count);
+        }
+    }
+
+    /**
+     * RecursiveTask counting the (weighted) objects nearest to each candidate
+     */
+    private static class WeightTask extends RecursiveTask<double[]> {
+        private final FeatureMatrix object;
+        private final double[] weights;
+        private final double[] candidates;
+        private final int count;
+        private final int from;
+        private final int to;
+        private final int grainSize;
+
+        WeightTask(FeatureMatrix object, double[] weights, double[] candidates, int count, int from, int to, int grainSize) {
+            this.object = object;
+            this.weights = weights;
+            this.candidates = candidates;
+            this.count = count;
+            this.from = from;
+            this.to = to;
+            this.grainSize = grainSize;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > grainSize) {
+                int mid = (from + to) >>> 1;
+                WeightTask left = new WeightTask(object, weights, candidates, count, from, mid, grainSize);
+                left.fork();
+                double[] weight = new WeightTask(object, weights, candidates, count, mid, to, grainSize).compute();
+                double[] leftWeight = left.join();
+                for (int k = 0; k < count; k++) weight[k] += leftWeight[k];
+                return weight;
+            }
+            int d = object.getDimensions();
+            double[] buffer = object.rowBuffer();
+            double[] weight = new double[count];
+            double[] centers = Kernel.DEFAULT.centers(candidates, count, d);
+            double[] d2 = new double[count];
+            for (int i = from; i < to; i++) {
+                double[] x = object.row(i, buffer);
+                int xo = object.rowOffset(i);
+                Kernel.DEFAULT.squaredDistances(x, xo, centers, count, d, d2);
+                int nearest = 0;
+                for (int k = 1; k < count; k++) {
+                    if (d2[k] < d2[nearest]) nearest = k;
+                }
+                weight[nearest] += weights != null ? weights[i] : 1.0;
+            }
+            return weight;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package de.clusterfreak.ClusterCore;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Shard of the objects for a distributed FCM or PCM run
+ * <p>
+ * Holds a part of the objects and its rows of the partition matrix. Each step
+ * gets the current cluster centers (and ni) and returns the sufficient
+ * statistics of the shard ({@link ShardStatistics}); the statistics of all
+ * shards are merged and give the cluster centers and ni of the next step. The
+ * steps are calculated with the same parallel tasks as
+ * {@link FuzzyCMeans} and {@link PossibilisticCMeans}, so a run over shards
+ * gives the same result as a run over all objects up to rounding. A shard may
+ * live in another process: only the cluster centers, ni and the statistics
+ * in their binary form have to be exchanged.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ * @see ShardedCMeans
+ */
+public class Shard {
+    /**
+     * Objects of the shard
+     */
+    private final FeatureMatrix object;
+    /**
+     * Quantity/number of clusters
+     */
+    private final int cluster;
+    /**
+     * Fuzzifier
+     */
+    final Fuzzifier m;
+    /**
+     * Partition matrix of the shard, row-major
+     */
+    private double[] mik;
+    /**
+     * Second buffer of the partition matrix
+     */
+    private double[] mikNext;
+    /**
+     * Weight per object, <code>null</code> weights all objects with 1
+     */
+    private double[] weights;
+    /**
+     * Weight of the objects
+     */
+    private double count;
+    /**
+     * Pool for the parallel calculation steps, <code>null</code> uses the
+     * common pool
+     */
+    private ForkJoinPool pool;
+    /**
+     * Minimum number of objects per parallel task, initial value 1024
+     */
+    private int grainSize = 1024;
+
+    /**
+     * Generates a shard
+     *
+     * @param object       Objects of the shard
+     * @param clusterCount Number of clusters
+     */
+    public Shard(FeatureMatrix object, int clusterCount) {
+        this(object, clusterCount, Fuzzifier.DEFAULT);
+    }
+
+    /**
+     * Generates a shard
+     *
+     * @param object       Objects of the shard
+     * @param clusterCount Number of clusters
+     * @param m            Fuzzifier, greater than 1, the same for all shards
+     *                     of a run
+     */
+    public Shard(FeatureMatrix object, int clusterCount, double m) {
+        this(object, clusterCount, Fuzzifier.of(m));
+    }
+
+    private Shard(FeatureMatrix object, int clusterCount, Fuzzifier m) {
+        this.object = object;
+        this.cluster = clusterCount;
+        this.m = m;
+        this.mik = new double[ClusterMath.size(object.getCount(), cluster)];
+        this.mikNext = new double[mik.length];
+        this.count = object.getCount();
+    }
+
+    /**
+     * Clears the partition matrix before a new run
+     */
+    public void reset() {
+        Arrays.fill(mik, 0.0);
+    }
+
+    /**
+     * FCM step 3: new partition matrix from the cluster centers
+     *
+     * @param vi Cluster centers (clusterCount rows)
+     * @return Sums of the next step 2, change and objective function
+     */
+    public ShardStatistics fuzzy(double[][] vi) {
+        int n = object.getCount();
+        ClusterStatistics statistics = invoke(new FuzzyCMeans.UpdatePartitionMatrixTask(mik, mikNext, flatten(vi), object, cluster, m, weights, false, 0, n, grainSize));
+        swap();
+        return new ShardStatistics(statistics, new double[2 * cluster], count);
+    }
+
+    /**
+     * Sums of ni from the current partition matrix and cluster centers
+     *
+     * @param vi Cluster centers (clusterCount rows)
+     * @return Sums of ni
+     */
+    public ShardStatistics ni(double[][] vi) {
+        int n = object.getCount();
+        double[] niSums = invoke(new PossibilisticCMeans.NiTask(mik, flatten(vi), object, cluster, m, weights, 0, n, grainSize));
+        return new ShardStatistics(new ClusterStatistics(cluster, object.getDimensions()), niSums, count);
+    }
+
+    /**
+     * PCM step 3: new partition matrix from the cluster centers and ni
+     *
+     * @param vi Cluster centers (clusterCount rows)
+     * @param ni ni per cluster
+     * @return Sums of the next step 2, change and objective function
+     */
+    public ShardStatistics possibilistic(double[][] vi, double[] ni) {
+        if (ni.length != cluster) throw new IllegalArgumentException("ni has " + ni.length + " values, expected " + cluster);
+        int n = object.getCount();
+        ClusterStatistics statistics = invoke(new PossibilisticCMeans.UpdatePartitionMatrixTask(mik, mikNext, flatten(vi), object, cluster, m, ni, weights, 0, n, grainSize));
+        swap();
+        return new ShardStatistics(statistics, new double[2 * cluster], count);
+    }
+
+    private double[] flatten(double[][] vi) {
+        if (vi.length != cluster) throw new IllegalArgumentException("vi has " + vi.length + " rows, expected " + cluster);
+        return ClusterMath.flatten(vi, object.getDimensions());
+    }
+
+    private void swap() {
+        double[] swap = mik;
+        mik = mikNext;
+        mikNext = swap;
+    }
+
+    /**
+     * Runs a parallel calculation step. Objects that fit into one task are
+     * calculated in the calling thread.
+     */
+    private <T> T invoke(ForkJoinTask<T> task) {
+        if (object.getCount() <= grainSize) return task.invoke();
+        return (pool != null ? pool : ForkJoinPool.commonPool()).invoke(task);
+    }
+
+    /**
+     * Returns the partition matrix of the shard
+     *
+     * @return Partition matrix, one row per object of the shard
+     */
+    public double[][] getMik() {
+        return ClusterMath.toRows(mik, object.getCount(), cluster);
+    }
+
+    /**
+     * Returns the fuzzifier
+     *
+     * @return m
+     */
+    public double getFuzzifier() {
+        return m.m;
+    }
+
+    /**
+     * Returns the objects of the shard
+     *
+     * @return Objects
+     */
+    public FeatureMatrix getObjects() {
+        return object;
+    }
+
+    /**
+     * Set a weight per object, see {@link FuzzyCMeans#setWeights(double[])}
+     *
+     * @param weights Weight per object (not copied), <code>null</code> weights
+     *                all objects with 1 (initial value)
+     */
+    public void setWeights(double[] weights) {
+        FuzzyCMeans.checkWeights(weights, object.getCount());
+        this.weights = weights;
+        this.count = weights != null ? FuzzyCMeans.total(weights) : object.getCount();
+    }
+
+    /**
+     * Set the pool for the parallel calculation steps. The pool is not shut
+     * down by this class.
+     *
+     * @param pool Pool, <code>null</code> uses the common pool
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Set the minimum number of objects per parallel task
+     *
+     * @param grainSize Objects per task, initial value 1024
+     */
+    public void setGrainSize(int grainSize) {
+        if (grainSize < 1) throw new IllegalArgumentException("grainSize must be positive");
+        this.grainSize = grainSize;
+    }
+}
@@ -0,0 +1,219 @@
+package de.clusterfreak.ClusterCore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Sufficient statistics of one step over a shard of the objects
+ * <p>
+ * Holds the per-cluster sums of step 2 (sum mik^m * x, sum mik^m), the sums of
+ * ni (sum mik&sup2; * mik&sup2; * dik&sup2;, sum mik&sup2;) and the scalar sums of step 4
+ * (change of the partition matrix, objective function, partition coefficient
+ * and entropy, weight of the objects). Statistics of disjoint shards are
+ * merged by adding them, in any order and grouping, so only O(c * d) numbers
+ * per shard and iteration need to be exchanged, e.g. in the binary form
+ * between processes:
+ *
+ * <pre>
+ * Offset  Size  Content
+ *  0      4     Magic "CFSS"
+ *  4      4     Version (1)
+ *  8      4     Number of clusters
+ * 12      4     Number of dimensions
+ * 16      8     Change of the partition matrix (double)
+ * 24      8     Objective function (double)
+ * 32      8     Sum mik&sup2; (double)
+ * 40      8     Sum -mik * ln(mik) (double)
+ * 48      8     Weight of the objects (double)
+ * 56            Sums per cluster (doubles): sum mik^m * x (row-major),
+ *               sum mik^m, sum mik&sup2; * mik&sup2; * dik&sup2;, sum mik&sup2;
+ * </PRE>
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ * @see Shard
+ * @see ShardedCMeans
+ */
+public final class ShardStatistics {
+    /**
+     * Magic number "CFSS"
+     */
+    private static final int MAGIC = 0x53534643;
+    /**
+     * Version of the binary format
+     */
+    private static final int VERSION = 1;
+    /**
+     * Size of the header in bytes
+     */
+    private static final int HEADER = 56;
+    /**
+     * Sums of step 2 and step 4
+     */
+    final ClusterStatistics statistics;
+    /**
+     * Sum mik&sup2; * mik&sup2; * dik&sup2; per cluster, followed by sum mik&sup2; per cluster
+     */
+    final double[] niSums;
+    /**
+     * Weight of the objects (number of objects if not weighted)
+     */
+    double count;
+
+    /**
+     * Generates empty statistics
+     *
+     * @param cluster    Number of clusters
+     * @param dimensions Number of dimensions per object
+     */
+    public ShardStatistics(int cluster, int dimensions) {
+        this(new ClusterStatistics(cluster, dimensions), new double[2 * cluster], 0.0);
+    }
+
+    ShardStatistics(ClusterStatistics statistics, double[] niSums, double count) {
+        this.statistics = statistics;
+        this.niSums = niSums;
+        this.count = count;
+    }
+
+    /**
+     * Adds the statistics of another shard
+     *
+     * @param other Statistics of a disjoint shard
+     * @return this
+     */
+    public ShardStatistics merge(ShardStatistics other) {
+        if (other.statistics.cluster != statistics.cluster || other.statistics.dimensions != statistics.dimensions)
+            throw new IllegalArgumentException("statistics of " + other.statistics.cluster + " x " + other.statistics.dimensions
+                    + ", expected " + statistics.cluster + " x " + statistics.dimensions);
+        statistics.merge(other.statistics);
+        for (int k = 0; k < niSums.length; k++) niSums[k] += other.niSums[k];
+        count += other.count;
+        return this;
+    }
+
+    /**
+     * Returns the cluster centers of the next iteration (step 2)
+     *
+     * @param vi Current cluster centers, kept for clusters without weight
+     * @return Cluster centers
+     */
+    public double[][] centers(double[][] vi) {
+        int d = statistics.dimensions;
+        double[] next = ClusterMath.flatten(vi, d);
+        statistics.centers(next);
+        return ClusterMath.toRows(next, statistics.cluster, d);
+    }
+
+    /**
+     * Returns ni = sum mik&sup2; * mik&sup2; * dik&sup2; / sum mik&sup2; per cluster
+     *
+     * @return ni
+     */
+    public double[] ni() {
+        int cluster = statistics.cluster;
+        double[] ni = new double[cluster];
+        for (int k = 0; k < cluster; k++) ni[k] = niSums[k] / niSums[cluster + k];
+        return ni;
+    }
+
+    /**
+     * Returns the squared euclidean distance between the previous and the new
+     * partition matrix
+     *
+     * @return Sum of the squared changes
+     */
+    public double getChange() {
+        return statistics.change;
+    }
+
+    /**
+     * Returns the objective function
+     *
+     * @return Objective
+     */
+    public double getObjective() {
+        return statistics.objective;
+    }
+
+    /**
+     * Returns the weight of the objects
+     *
+     * @return Number of objects, or the sum of their weights
+     */
+    public double getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of clusters
+     *
+     * @return Clusters
+     */
+    public int getCluster() {
+        return statistics.cluster;
+    }
+
+    /**
+     * Returns the number of dimensions per object
+     *
+     * @return Dimensions
+     */
+    public int getDimensions() {
+        return statistics.dimensions;
+    }
+
+    /**
+     * Returns the binary form
+     *
+     * @return Bytes
+     */
+    public byte[] toByteArray() {
+        int cluster = statistics.cluster;
+        int values = statistics.sum.length + 3 * cluster;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + values * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(cluster).putInt(statistics.dimensions);
+        buffer.putDouble(statistics.change).putDouble(statistics.objective).putDouble(statistics.coefficient)
+                .putDouble(statistics.entropy).putDouble(count);
+        for (int k = 0; k < cluster; k++) {
+            for (int j = 0; j < statistics.dimensions; j++) buffer.putDouble(statistics.sum[statistics.index(k, j)]);
+        }
+        for (double v : statistics.weight) buffer.putDouble(v);
+        for (double v : niSums) buffer.putDouble(v);
+        return buffer.array();
+    }
+
+    /**
+     * Reads statistics from their binary form
+     *
+     * @param bytes Bytes
+     * @return Statistics
+     * @throws IOException if the bytes are not shard statistics
+     */
+    public static ShardStatistics of(byte[] bytes) throws IOException {
+        if (bytes.length < HEADER) throw new IOException("header incomplete");
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt() != MAGIC) throw new IOException("not shard statistics");
+        int version = buffer.getInt();
+        if (version != VERSION) throw new IOException("unsupported version " + version);
+        int cluster = buffer.getInt();
+        int dimensions = buffer.getInt();
+        if (cluster < 1 || dimensions < 1) throw new IOException("invalid size " + cluster + " x " + dimensions);
+        long values = (long) cluster * dimensions + 3L * cluster;
+        if (bytes.length < HEADER + values * Double.BYTES) throw new IOException("values incomplete");
+        ShardStatistics result = new ShardStatistics(cluster, dimensions);
+        ClusterStatistics statistics = result.statistics;
+        statistics.change = buffer.getDouble();
+        statistics.objective = buffer.getDouble();
+        statistics.coefficient = buffer.getDouble();
+        statistics.entropy = buffer.getDouble();
+        result.count = buffer.getDouble();
+        for (int k = 0; k < cluster; k++) {
+            for (int j = 0; j < dimensions; j++) statistics.sum[statistics.index(k, j)] = buffer.getDouble();
+        }
+        for (int k = 0; k < cluster; k++) statistics.weight[k] = buffer.getDouble();
+        for (int k = 0; k < result.niSums.length; k++) result.niSums[k] = buffer.getDouble();
+        return result;
+    }
+}
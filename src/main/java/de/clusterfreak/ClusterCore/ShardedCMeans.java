@@ -0,0 +1,308 @@
+package de.clusterfreak.ClusterCore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * FCM and PCM over shards of the objects
+ * <p>
+ * Driver for {@link Shard}s in this process: each step runs on all shards
+ * concurrently ({@link ClusterBatch}), the {@link ShardStatistics} are merged
+ * in shard order and give the cluster centers and ni of the next step. The
+ * steps, the fuzzifier m of the shards and the termination criteria
+ * (threshold, maximum number of iterations, tolerances of the objective
+ * function and the center shift, relaxation, stop) are those of
+ * {@link FuzzyCMeans#determineClusterCenters(double[][], boolean)} and
+ * {@link PossibilisticCMeans#determineClusterCenters(double[][], double[], boolean)},
+ * so a run over shards gives the same cluster centers as a run over all
+ * objects up to rounding; a driver for shards in other processes exchanges
+ * the same cluster centers, ni and statistics.
+ *
+ * <pre>
+ * Step 1: Initialization (given cluster centers)
+ * Step 2: Determination of the cluster centers from the merged statistics
+ * Step 3: Calculate the new partition matrix (and ni) per shard
+ * Step 4: Termination or repetition
+ * Step 5: optional - Repeat calculation (steps 2 to 4)
+ * </PRE>
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ * @see Shard
+ */
+public class ShardedCMeans {
+    /**
+     * Shards of the objects
+     */
+    private final List<Shard> shards;
+    /**
+     * Quantity/number of clusters
+     */
+    private final int cluster;
+    /**
+     * Number of dimensions per object
+     */
+    private final int dimensions;
+    /**
+     * Fuzzifier of the shards
+     */
+    private final Fuzzifier m;
+    /**
+     * Termination threshold, initial value 1.0e-7
+     */
+    private double e = 1.0e-7;
+    /**
+     * Termination criteria and relaxation
+     */
+    private final ConvergenceControl control = new ConvergenceControl();
+    /**
+     * Executor for the shards, <code>null</code> runs one virtual thread per
+     * shard
+     */
+    private ExecutorService executor;
+    /**
+     * Cluster centers of the last run
+     */
+    private double[][] vi;
+    /**
+     * ni of the last PCM run, <code>null</code> after FCM
+     */
+    private double[] ni;
+    /**
+     * Merged statistics of the last step
+     */
+    private ShardStatistics statistics;
+
+    /**
+     * Generates a driver over shards
+     *
+     * @param shards       Shards of the objects, each with clusterCount
+     *                     clusters and the same fuzzifier
+     * @param clusterCount Number of clusters
+     */
+    public ShardedCMeans(List<Shard> shards, int clusterCount) {
+        if (shards.isEmpty()) throw new IllegalArgumentException("no shards");
+        this.shards = List.copyOf(shards);
+        this.cluster = clusterCount;
+        this.dimensions = shards.get(0).getObjects().getDimensions();
+        this.m = shards.get(0).m;
+        for (Shard shard : shards) {
+            if (shard.m.m != m.m) throw new IllegalArgumentException("shards with different fuzzifiers");
+        }
+    }
+
+    /**
+     * Generates a driver over shards
+     *
+     * @param shards       Shards of the objects, each with clusterCount
+     *                     clusters and the same fuzzifier
+     * @param clusterCount Number of clusters
+     * @param e            Termination threshold, initial value 1.0e-7
+     */
+    public ShardedCMeans(List<Shard> shards, int clusterCount, double e) {
+        this(shards, clusterCount);
+        this.e = e;
+    }
+
+    /**
+     * Runs FCM
+     *
+     * @param initialVi Initial cluster centers (clusterCount rows)
+     * @return Cluster centers
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException   if a shard failed
+     */
+    public double[][] fuzzyCMeans(double[][] initialVi) throws InterruptedException, ExecutionException {
+        if (initialVi.length != cluster)
+            throw new IllegalArgumentException("initialVi has " + initialVi.length + " rows, expected " + cluster);
+        control.stopped = false;
+        try (ClusterBatch batch = executor != null ? new ClusterBatch(executor) : new ClusterBatch()) {
+            // Step 1: Initialization
+            for (Shard shard : shards) shard.reset();
+            vi = initialVi;
+            ni = null;
+            fuzzy(batch);
+        }
+        return vi;
+    }
+
+    /**
+     * Runs PCM, starting with a FCM pass
+     *
+     * @param initialVi Initial cluster centers (clusterCount rows)
+     * @param repeat    Number of PCM passes
+     * @return Cluster centers
+     * @throws InterruptedException if interrupted while waiting
+     * @throws ExecutionException   if a shard failed
+     */
+    public double[][] possibilisticCMeans(double[][] initialVi, int repeat) throws InterruptedException, ExecutionException {
+        if (initialVi.length != cluster)
+            throw new IllegalArgumentException("initialVi has " + initialVi.length + " rows, expected " + cluster);
+        control.stopped = false;
+        try (ClusterBatch batch = executor != null ? new ClusterBatch(executor) : new ClusterBatch()) {
+            // Step 1: Initialization
+            for (Shard shard : shards) shard.reset();
+            vi = initialVi;
+            fuzzy(batch);
+            for (int pass = 0; pass < repeat && !control.stopped; pass++) {
+                // Step 2: Determination of the cluster centers
+                vi = statistics.centers(vi);
+                double[][] centers = vi;
+                ni = step(batch, shard -> shard.ni(centers)).ni();
+                double[] currentNi = ni;
+                iterate(batch, current -> shard -> shard.possibilistic(current, currentNi));
+            }
+        }
+        return vi;
+    }
+
+    /**
+     * FCM iterations from the current cluster centers
+     */
+    private void fuzzy(ClusterBatch batch) throws InterruptedException, ExecutionException {
+        iterate(batch, current -> shard -> shard.fuzzy(current));
+    }
+
+    /**
+     * Steps 3 to 5 of a pass from the current cluster centers, with the
+     * termination criteria and relaxation of FCM and PCM
+     *
+     * @param step Step 3 of a shard for given cluster centers
+     */
+    private void iterate(ClusterBatch batch, Function<double[][], Function<Shard, ShardStatistics>> step)
+            throws InterruptedException, ExecutionException {
+        double[] v = ClusterMath.flatten(vi, dimensions);
+        control.start(v.length);
+        boolean repeat;
+        do {
+            // Step 3: Calculate the new partition matrix
+            statistics = step(batch, step.apply(vi));
+            // Step 4: Termination or repetition
+            repeat = control.repeat(statistics.statistics, Math.sqrt(statistics.getChange()), e);
+            // --> Step 5: optional - Repeat calculation (steps 2 to 4)
+            if (repeat) repeat = control.update(statistics.statistics, v);
+            if (repeat) vi = ClusterMath.toRows(v, cluster, dimensions);
+        } while (repeat);
+    }
+
+    /**
+     * Runs a step on all shards and merges the statistics in shard order
+     */
+    private ShardStatistics step(ClusterBatch batch, Function<Shard, ShardStatistics> step)
+            throws InterruptedException, ExecutionException {
+        List<Callable<ShardStatistics>> jobs = new ArrayList<>(shards.size());
+        for (Shard shard : shards) jobs.add(() -> step.apply(shard));
+        List<ShardStatistics> results = batch.invokeAll(jobs);
+        ShardStatistics merged = results.get(0);
+        for (int s = 1; s < results.size(); s++) merged.merge(results.get(s));
+        return merged;
+    }
+
+    /**
+     * Returns the cluster centers of the last run
+     *
+     * @return vi, or <code>null</code> before a run
+     */
+    public double[][] getVi() {
+        return vi;
+    }
+
+    /**
+     * Returns ni of the last PCM run
+     *
+     * @return ni, or <code>null</code> before a PCM run
+     */
+    public double[] getNi() {
+        return ni == null ? null : ni.clone();
+    }
+
+    /**
+     * Returns the merged statistics of the last step
+     *
+     * @return Statistics, or <code>null</code> before a run
+     */
+    public ShardStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns the fitted model of the last run
+     *
+     * @return FCM or PCM model
+     */
+    public ClusterModel getModel() {
+        return new ClusterModel(ClusterMath.flatten(vi, dimensions), cluster, dimensions, m.m, ni);
+    }
+
+    /**
+     * Set the maximum number of iterations per pass
+     *
+     * @param maxIterations Iterations, 0 = unlimited (initial value)
+     */
+    public void setMaxIterations(int maxIterations) {
+        control.setMaxIterations(maxIterations);
+    }
+
+    /**
+     * Set the tolerance of the center shift, see
+     * {@link FuzzyCMeans#setCenterTolerance(double)}
+     *
+     * @param centerTolerance Tolerance, 0 = not used (initial value)
+     */
+    public void setCenterTolerance(double centerTolerance) {
+        control.setCenterTolerance(centerTolerance);
+    }
+
+    /**
+     * Set the tolerance of the relative change of the objective function, see
+     * {@link FuzzyCMeans#setObjectiveTolerance(double)}
+     *
+     * @param objectiveTolerance Tolerance, 0 = not used (initial value)
+     */
+    public void setObjectiveTolerance(double objectiveTolerance) {
+        control.setObjectiveTolerance(objectiveTolerance);
+    }
+
+    /**
+     * Set the over-relaxation of the cluster centers, see
+     * {@link FuzzyCMeans#setRelaxation(double)}
+     *
+     * @param relaxation Factor in [1, 2), 1 = none (initial value)
+     */
+    public void setRelaxation(double relaxation) {
+        control.setRelaxation(relaxation);
+    }
+
+    /**
+     * Requests the running fuzzyCMeans or possibilisticCMeans to terminate
+     * after the current iteration; it returns the cluster centers reached so
+     * far. A request before the start of a run is discarded.
+     */
+    public void stop() {
+        control.stopped = true;
+    }
+
+    /**
+     * Returns whether the last run was stopped by {@link #stop()}
+     *
+     * @return <code>true</code> if stopped
+     */
+    public boolean isStopped() {
+        return control.stopped;
+    }
+
+    /**
+     * Set the executor for the shards. The executor is not shut down by this
+     * class.
+     *
+     * @param executor Executor, <code>null</code> runs one virtual thread per
+     *                 shard (initial value)
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+}
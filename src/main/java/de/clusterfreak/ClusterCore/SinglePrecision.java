@@ -0,0 +1,355 @@
+package de.clusterfreak.ClusterCore;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Single precision computation of FCM and PCM
+ * <p>
+ * Used for objects stored as floats ({@link FeatureMatrix#isSinglePrecision()})
+ * with the dense partition matrix. Both partition matrices are floats, half
+ * the memory and memory bandwidth of the largest arrays (2 * n * c values);
+ * the objects are read as floats without widening, and distances and
+ * memberships run on the float kernels with twice the lanes per vector. The
+ * cluster centers stay double between the iterations, each task rounds them
+ * to floats once. The cluster center sums are accumulated in floats for
+ * blocks of {@link #BLOCK} objects and added to double sums; the change, the
+ * objective function and the partition coefficient are summed in float per
+ * object and in double over the objects, ni in double.
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+final class SinglePrecision {
+    /**
+     * Objects per block of float cluster center sums
+     */
+    static final int BLOCK = 256;
+    /**
+     * Units in the last place per membership value that a cycle on the float
+     * fixed point may change
+     */
+    static final double NOISE = 4.0;
+
+    private SinglePrecision() {
+    }
+
+    /**
+     * Returns the termination threshold of step 4. The change of a float
+     * partition matrix does not drop below its rounding noise, a few units in
+     * the last place of each membership value (about mik * 2^-23): once the
+     * euclidean distance is within {@link #NOISE} times the noise and no
+     * longer decreases, the iteration has reached its float fixed point or
+     * cycles on it and stops.
+     *
+     * @param e          Termination threshold
+     * @param delta      Euclidean distance to the previous partition matrix
+     * @param previous   Euclidean distance of the previous iteration
+     * @param statistics Sums of the new partition matrix
+     * @return e, or infinity to stop
+     */
+    static double threshold(double e, double delta, double previous, ClusterStatistics statistics) {
+        double noise = NOISE * Math.ulp(1.0f) * Math.sqrt(statistics.squares);
+        return delta <= noise && delta >= previous ? Double.POSITIVE_INFINITY : e;
+    }
+
+    /**
+     * Returns a float array for one value per cluster, padded for the float
+     * kernels
+     *
+     * @param cluster Number of clusters
+     * @return Float array
+     */
+    static float[] perCluster(int cluster) {
+        return new float[cluster + Kernel.DEFAULT.singlePadding()];
+    }
+
+    /**
+     * Rounds values to floats
+     *
+     * @param values Values
+     * @return Float copy
+     */
+    static float[] toFloat(double[] values) {
+        float[] result = new float[values.length];
+        for (int j = 0; j < values.length; j++) result[j] = (float) values[j];
+        return result;
+    }
+
+    /**
+     * Widens values to doubles
+     *
+     * @param values Values
+     * @return Double copy
+     */
+    static double[] toDouble(float[] values) {
+        double[] result = new double[values.length];
+        for (int j = 0; j < values.length; j++) result[j] = values[j];
+        return result;
+    }
+
+    /**
+     * Float cluster center sums of up to {@link #BLOCK} objects, added to the
+     * double sums of a {@link ClusterStatistics}
+     */
+    private static final class Block {
+        private final ClusterStatistics statistics;
+        private final float[] sum;
+        private final boolean transposed;
+        private int count;
+
+        Block(ClusterStatistics statistics) {
+            this.statistics = statistics;
+            this.sum = new float[statistics.sum.length + Kernel.DEFAULT.singlePadding()];
+            this.transposed = Kernel.DEFAULT.transposedSingle(statistics.dimensions);
+        }
+
+        /**
+         * Adds one object to all clusters
+         *
+         * @param w       Weight mik^m per cluster
+         * @param x       Objects
+         * @param xOffset Start of the object in x
+         */
+        void add(float[] w, float[] x, int xOffset) {
+            int cluster = statistics.cluster;
+            Kernel.DEFAULT.accumulate(sum, w, x, xOffset, cluster, statistics.dimensions);
+            for (int k = 0; k < cluster; k++) statistics.weight[k] += w[k];
+            if (++count == BLOCK) flush();
+        }
+
+        /**
+         * Adds the float sums to the double sums
+         */
+        void flush() {
+            int cluster = statistics.cluster;
+            int d = statistics.dimensions;
+            for (int k = 0; k < cluster; k++) {
+                for (int j = 0; j < d; j++) {
+                    statistics.sum[statistics.index(k, j)] += sum[transposed ? j * cluster + k : k * d + j];
+                }
+            }
+            Arrays.fill(sum, 0.0f);
+            count = 0;
+        }
+    }
+
+    /**
+     * RecursiveTask for updating the float partition matrix, split into ranges
+     * of objects
+     * <p>
+     * The FCM (ni <code>null</code>) and PCM update of
+     * {@link FuzzyCMeans.UpdatePartitionMatrixTask} and
+     * {@link PossibilisticCMeans.UpdatePartitionMatrixTask} in single
+     * precision: the previous partition matrix is only read, the new one is
+     * written into a second buffer.
+     */
+    static final class UpdateTask extends RecursiveTask<ClusterStatistics> {
+        private final float[] mikBefore;
+        private final float[] mik;
+        private final double[] vi;
+        private final FeatureMatrix object;
+        private final int cluster;
+        private final Fuzzifier m;
+        /**
+         * ni per cluster for PCM, <code>null</code> for FCM
+         */
+        private final double[] ni;
+        private final double[] weight;
+        private final boolean entropy;
+        private final int from;
+        private final int to;
+        private final int grainSize;
+
+        UpdateTask(float[] mikBefore, float[] mik, double[] vi, FeatureMatrix object, int cluster, Fuzzifier m, double[] ni, double[] weight, boolean entropy, int from, int to, int grainSize) {
+            this.mikBefore = mikBefore;
+            this.mik = mik;
+            this.vi = vi;
+            this.object = object;
+            this.cluster = cluster;
+            this.m = m;
+            this.ni = ni;
+            this.weight = weight;
+            this.entropy = entropy;
+            this.from = from;
+            this.to = to;
+            this.grainSize = grainSize;
+        }
+
+        @Override
+        protected ClusterStatistics compute() {
+            if (to - from > grainSize) {
+                int mid = (from + to) >>> 1;
+                UpdateTask left = new UpdateTask(mikBefore, mik, vi, object, cluster, m, ni, weight, entropy, from, mid, grainSize);
+                left.fork();
+                ClusterStatistics right = new UpdateTask(mikBefore, mik, vi, object, cluster, m, ni, weight, entropy, mid, to, grainSize).compute();
+                return left.join().merge(right);
+            }
+            int d = object.getDimensions();
+            float[] buffer = object.floatRowBuffer();
+            ClusterStatistics statistics = new ClusterStatistics(cluster, d);
+            Block block = new Block(statistics);
+            Kernel kernel = Kernel.DEFAULT;
+            float[] centers = kernel.singleCenters(vi, cluster, d);
+            float[] niSingle = null;
+            if (ni != null) {
+                niSingle = perCluster(cluster);
+                for (int k = 0; k < cluster; k++) niSingle[k] = (float) ni[k];
+            }
+            float[] d2 = perCluster(cluster);
+            float[] uik = perCluster(cluster);
+            float[] wik = perCluster(cluster);
+            for (int i = from; i < to; i++) {
+                float[] x = object.floatRow(i, buffer);
+                int xo = object.floatRowOffset(i);
+                double wi = weight != null ? weight[i] : 1.0;
+                float weightSingle = (float) wi;
+                kernel.squaredDistances(x, xo, centers, cluster, d, d2);
+                if (ni == null) {
+                    // (1/dik)^(1/(m-1))
+                    float dik = m.fuzzyWeights(d2, uik, cluster);
+                    for (int k = 0; k < cluster; k++) uik[k] /= dik;
+                } else {
+                    m.possibilisticMemberships(d2, niSingle, uik, cluster);
+                }
+                // sums of the object in float, added in double
+                float change = 0.0f;
+                float objective = 0.0f;
+                float squares = 0.0f;
+                for (int k = 0; k < cluster; k++) {
+                    int ik = i * cluster + k;
+                    float u = uik[k];
+                    if (Float.isNaN(u)) u = 1.0f;
+                    mik[ik] = u;
+                    float diff = u - mikBefore[ik];
+                    change += diff * diff;
+                    float um = m.power(u);
+                    objective += ni == null ? um * d2[k] : um * d2[k] + niSingle[k] * m.power(1 - u);
+                    squares += u * u;
+                    if (entropy && u > 0.0f) statistics.entropy -= wi * u * Math.log(u);
+                    wik[k] = weightSingle * um;
+                }
+                statistics.change += change;
+                statistics.objective += wi * objective;
+                statistics.squares += squares;
+                if (ni == null) statistics.coefficient += wi * squares;
+                block.add(wik, x, xo);
+            }
+            block.flush();
+            return statistics;
+        }
+    }
+
+    /**
+     * RecursiveTask for the cluster center sums of a float partition matrix,
+     * split into ranges of objects, see {@link CenterSumTask}
+     */
+    static final class CenterSumTask extends RecursiveTask<ClusterStatistics> {
+        private final float[] mik;
+        private final FeatureMatrix object;
+        private final int cluster;
+        private final Fuzzifier m;
+        private final double[] weight;
+        private final int from;
+        private final int to;
+        private final int grainSize;
+
+        CenterSumTask(float[] mik, FeatureMatrix object, int cluster, Fuzzifier m, double[] weight, int from, int to, int grainSize) {
+            this.mik = mik;
+            this.object = object;
+            this.cluster = cluster;
+            this.m = m;
+            this.weight = weight;
+            this.from = from;
+            this.to = to;
+            this.grainSize = grainSize;
+        }
+
+        @Override
+        protected ClusterStatistics compute() {
+            if (to - from > grainSize) {
+                int mid = (from + to) >>> 1;
+                CenterSumTask left = new CenterSumTask(mik, object, cluster, m, weight, from, mid, grainSize);
+                left.fork();
+                ClusterStatistics right = new CenterSumTask(mik, object, cluster, m, weight, mid, to, grainSize).compute();
+                return left.join().merge(right);
+            }
+            int d = object.getDimensions();
+            float[] buffer = object.floatRowBuffer();
+            ClusterStatistics statistics = new ClusterStatistics(cluster, d);
+            Block block = new Block(statistics);
+            float[] wik = perCluster(cluster);
+            for (int i = from; i < to; i++) {
+                float wi = weight != null ? (float) weight[i] : 1.0f;
+                float[] x = object.floatRow(i, buffer);
+                int xo = object.floatRowOffset(i);
+                for (int k = 0; k < cluster; k++) wik[k] = wi * m.power(mik[i * cluster + k]);
+                block.add(wik, x, xo);
+            }
+            block.flush();
+            return statistics;
+        }
+    }
+
+    /**
+     * RecursiveTask for the (weighted) sums of ni from a float partition
+     * matrix, see {@link PossibilisticCMeans.NiTask}
+     */
+    static final class NiTask extends RecursiveTask<double[]> {
+        private final float[] mik;
+        private final double[] vi;
+        private final FeatureMatrix object;
+        private final int cluster;
+        private final Fuzzifier m;
+        private final double[] weight;
+        private final int from;
+        private final int to;
+        private final int grainSize;
+
+        NiTask(float[] mik, double[] vi, FeatureMatrix object, int cluster, Fuzzifier m, double[] weight, int from, int to, int grainSize) {
+            this.mik = mik;
+            this.vi = vi;
+            this.object = object;
+            this.cluster = cluster;
+            this.m = m;
+            this.weight = weight;
+            this.from = from;
+            this.to = to;
+            this.grainSize = grainSize;
+        }
+
+        /**
+         * @return sum mik^m*mik^m*dik&sup2; per cluster, followed by sum mik^m per cluster
+         */
+        @Override
+        protected double[] compute() {
+            if (to - from > grainSize) {
+                int mid = (from + to) >>> 1;
+                NiTask left = new NiTask(mik, vi, object, cluster, m, weight, from, mid, grainSize);
+                left.fork();
+                double[] sums = new NiTask(mik, vi, object, cluster, m, weight, mid, to, grainSize).compute();
+                double[] leftSums = left.join();
+                for (int k = 0; k < sums.length; k++) sums[k] += leftSums[k];
+                return sums;
+            }
+            int d = object.getDimensions();
+            float[] buffer = object.floatRowBuffer();
+            double[] sums = new double[2 * cluster];
+            Kernel kernel = Kernel.DEFAULT;
+            float[] centers = kernel.singleCenters(vi, cluster, d);
+            float[] d2 = perCluster(cluster);
+            for (int i = from; i < to; i++) {
+                float[] x = object.floatRow(i, buffer);
+                int xo = object.floatRowOffset(i);
+                double wi = weight != null ? weight[i] : 1.0;
+                kernel.squaredDistances(x, xo, centers, cluster, d, d2);
+                for (int k = 0; k < cluster; k++) {
+                    double mikm = m.power(mik[i * cluster + k]);
+                    sums[k] += wi * mikm * mikm * d2[k];
+                    sums[cluster + k] += wi * mikm;
+                }
+            }
+            return sums;
+        }
+    }
+}
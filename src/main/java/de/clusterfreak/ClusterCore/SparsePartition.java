@@ -0,0 +1,192 @@
+package de.clusterfreak.ClusterCore;
+
+/**
+ * Sparse partition matrix
+ * <p>
+ * Keeps only the topK largest membership values of each object, as cluster
+ * index and value, plus the residual (sum of the dropped membership values).
+ * Memory use is O(n * topK) instead of O(n * c).
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+public class SparsePartition {
+    /**
+     * Number of objects
+     */
+    private final int count;
+    /**
+     * Quantity/number of clusters
+     */
+    private final int cluster;
+    /**
+     * Membership values kept per object
+     */
+    private final int topK;
+    /**
+     * Cluster index of the kept membership values, row-major (count * topK)
+     */
+    final int[] index;
+    /**
+     * Kept membership values, row-major (count * topK), in descending order
+     */
+    final double[] value;
+    /**
+     * Sum of the dropped membership values per object
+     */
+    final double[] residual;
+
+    /**
+     * Generates an empty sparse partition matrix (all membership values 0)
+     *
+     * @param count   Number of objects
+     * @param cluster Number of clusters
+     * @param topK    Membership values kept per object
+     */
+    public SparsePartition(int count, int cluster, int topK) {
+        if (topK < 1 || topK > cluster) throw new IllegalArgumentException("topK must be in [1, " + cluster + "]");
+        this.count = count;
+        this.cluster = cluster;
+        this.topK = topK;
+        this.index = new int[ClusterMath.size(count, topK)];
+        this.value = new double[index.length];
+        this.residual = new double[count];
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < topK; j++) index[i * topK + j] = j;
+        }
+    }
+
+    /**
+     * Generates a sparse partition matrix from a dense one
+     *
+     * @param mik  Partition matrix (one row per object)
+     * @param topK Membership values kept per object
+     * @return Sparse partition matrix
+     */
+    public static SparsePartition of(double[][] mik, int topK) {
+        int cluster = mik.length > 0 ? mik[0].length : topK;
+        SparsePartition sparse = new SparsePartition(mik.length, cluster, topK);
+        for (int i = 0; i < mik.length; i++) sparse.set(i, mik[i], 0);
+        return sparse;
+    }
+
+    /**
+     * Keeps the topK largest values of a dense row
+     *
+     * @param i      Object
+     * @param row    Dense membership values
+     * @param offset Start of the row
+     */
+    void set(int i, double[] row, int offset) {
+        int base = i * topK;
+        int kept = 0;
+        double total = 0.0;
+        for (int k = 0; k < cluster; k++) {
+            double u = row[offset + k];
+            total += u;
+            if (kept < topK) {
+                kept++;
+            } else if (u <= value[base + topK - 1]) {
+                continue;
+            }
+            // insertion into the descending list
+            int j = kept - 1;
+            while (j > 0 && value[base + j - 1] < u) {
+                value[base + j] = value[base + j - 1];
+                index[base + j] = index[base + j - 1];
+                j--;
+            }
+            value[base + j] = u;
+            index[base + j] = k;
+        }
+        double sum = 0.0;
+        for (int j = 0; j < topK; j++) sum += value[base + j];
+        residual[i] = total - sum;
+    }
+
+    /**
+     * Returns the number of objects
+     *
+     * @return count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of clusters
+     *
+     * @return cluster
+     */
+    public int getCluster() {
+        return cluster;
+    }
+
+    /**
+     * Returns the number of membership values kept per object
+     *
+     * @return topK
+     */
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * Returns the cluster of the j-th largest kept membership value
+     *
+     * @param i Object
+     * @param j Rank, 0 to topK - 1
+     * @return Cluster
+     */
+    public int getIndex(int i, int j) {
+        return index[i * topK + j];
+    }
+
+    /**
+     * Returns the j-th largest kept membership value
+     *
+     * @param i Object
+     * @param j Rank, 0 to topK - 1
+     * @return Membership value
+     */
+    public double getValue(int i, int j) {
+        return value[i * topK + j];
+    }
+
+    /**
+     * Returns the sum of the dropped membership values
+     *
+     * @param i Object
+     * @return Residual
+     */
+    public double getResidual(int i) {
+        return residual[i];
+    }
+
+    /**
+     * Returns a membership value, 0 if it was dropped
+     *
+     * @param i Object
+     * @param k Cluster
+     * @return Membership value
+     */
+    public double get(int i, int k) {
+        for (int j = i * topK; j < i * topK + topK; j++) {
+            if (index[j] == k) return value[j];
+        }
+        return 0.0;
+    }
+
+    /**
+     * Returns the dense partition matrix, dropped membership values are 0
+     *
+     * @return Partition matrix (one row per object)
+     */
+    public double[][] toArray() {
+        double[][] mik = new double[count][cluster];
+        for (int i = 0; i < count; i++) {
+            for (int j = i * topK; j < i * topK + topK; j++) mik[i][index[j]] = value[j];
+        }
+        return mik;
+    }
+}
@@ -0,0 +1,230 @@
+package de.clusterfreak.ClusterCore;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Arithmetic kernels with the Vector API (jdk.incubator.vector)
+ * <p>
+ * Loaded by {@link Kernel#DEFAULT} only when the module is present. Rows of
+ * at least one vector run the distance and center sum loops across the
+ * dimensions, row-major. Shorter rows (e.g. 2-D objects) keep the cluster
+ * centers and sums dimension-major and run the loops across the clusters:
+ * one vector holds coordinate j of several clusters, the object coordinate is
+ * broadcast, and the last clusters use a masked vector. The float loops
+ * choose the same way with twice the lanes, but run whole vectors into the
+ * padding of their arrays instead of masks (see {@link Kernel#singlePadding()}).
+ *
+ * @version 1.0.0 (2026-10-16)
+ * @author Thomas Heym
+ */
+final class VectorKernel implements Kernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public boolean transposed(int dimensions) {
+        return dimensions < SPECIES.length();
+    }
+
+    @Override
+    public void squaredDistances(double[] x, int xOffset, double[] centers, int cluster, int dimensions, double[] d2) {
+        if (transposed(dimensions)) {
+            for (int k = 0; k < cluster; k += SPECIES.length()) {
+                VectorMask<Double> mask = SPECIES.indexInRange(k, cluster);
+                DoubleVector acc = DoubleVector.zero(SPECIES);
+                for (int j = 0; j < dimensions; j++) {
+                    DoubleVector diff = DoubleVector.broadcast(SPECIES, x[xOffset + j])
+                            .sub(DoubleVector.fromArray(SPECIES, centers, j * cluster + k, mask));
+                    acc = diff.fma(diff, acc);
+                }
+                acc.intoArray(d2, k, mask);
+            }
+            return;
+        }
+        int bound = SPECIES.loopBound(dimensions);
+        for (int k = 0; k < cluster; k++) {
+            int v = k * dimensions;
+            DoubleVector acc = DoubleVector.zero(SPECIES);
+            int j = 0;
+            for (; j < bound; j += SPECIES.length()) {
+                DoubleVector diff = DoubleVector.fromArray(SPECIES, x, xOffset + j).sub(DoubleVector.fromArray(SPECIES, centers, v + j));
+                acc = diff.fma(diff, acc);
+            }
+            double sum = acc.reduceLanes(VectorOperators.ADD);
+            for (; j < dimensions; j++) {
+                double diff = x[xOffset + j] - centers[v + j];
+                sum += diff * diff;
+            }
+            d2[k] = sum;
+        }
+    }
+
+    @Override
+    public double fuzzyWeights(double[] d2, double[] w, int cluster) {
+        int bound = SPECIES.loopBound(cluster);
+        DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int k = 0;
+        for (; k < bound; k += SPECIES.length()) {
+            DoubleVector wk = one.div(DoubleVector.fromArray(SPECIES, d2, k).sqrt());
+            wk.intoArray(w, k);
+            acc = acc.add(wk);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; k < cluster; k++) {
+            w[k] = 1 / Math.sqrt(d2[k]);
+            sum += w[k];
+        }
+        return sum;
+    }
+
+    @Override
+    public void possibilisticMemberships(double[] d2, double[] ni, double[] u, int cluster) {
+        int bound = SPECIES.loopBound(cluster);
+        DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+        int k = 0;
+        for (; k < bound; k += SPECIES.length()) {
+            DoubleVector q = DoubleVector.fromArray(SPECIES, d2, k).div(DoubleVector.fromArray(SPECIES, ni, k));
+            one.div(one.add(q)).intoArray(u, k);
+        }
+        for (; k < cluster; k++) {
+            u[k] = 1 / (1 + d2[k] / ni[k]);
+        }
+    }
+
+    @Override
+    public void accumulate(double[] sum, int sumOffset, double w, double[] x, int xOffset, int dimensions) {
+        int bound = SPECIES.loopBound(dimensions);
+        DoubleVector wv = DoubleVector.broadcast(SPECIES, w);
+        int j = 0;
+        for (; j < bound; j += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, x, xOffset + j)
+                    .fma(wv, DoubleVector.fromArray(SPECIES, sum, sumOffset + j))
+                    .intoArray(sum, sumOffset + j);
+        }
+        for (; j < dimensions; j++) sum[sumOffset + j] += w * x[xOffset + j];
+    }
+
+    @Override
+    public void accumulate(double[] sum, double[] w, double[] x, int xOffset, int cluster, int dimensions) {
+        if (!transposed(dimensions)) {
+            for (int k = 0; k < cluster; k++) accumulate(sum, k * dimensions, w[k], x, xOffset, dimensions);
+            return;
+        }
+        for (int k = 0; k < cluster; k += SPECIES.length()) {
+            VectorMask<Double> mask = SPECIES.indexInRange(k, cluster);
+            DoubleVector wv = DoubleVector.fromArray(SPECIES, w, k, mask);
+            for (int j = 0; j < dimensions; j++) {
+                int s = j * cluster + k;
+                wv.fma(DoubleVector.broadcast(SPECIES, x[xOffset + j]), DoubleVector.fromArray(SPECIES, sum, s, mask))
+                        .intoArray(sum, s, mask);
+            }
+        }
+    }
+
+    @Override
+    public boolean transposedSingle(int dimensions) {
+        return dimensions < FLOATS.length();
+    }
+
+    @Override
+    public int singlePadding() {
+        return FLOATS.length();
+    }
+
+    @Override
+    public void squaredDistances(float[] x, int xOffset, float[] centers, int cluster, int dimensions, float[] d2) {
+        if (transposedSingle(dimensions)) {
+            for (int k = 0; k < cluster; k += FLOATS.length()) {
+                FloatVector acc = FloatVector.zero(FLOATS);
+                for (int j = 0; j < dimensions; j++) {
+                    FloatVector diff = FloatVector.broadcast(FLOATS, x[xOffset + j])
+                            .sub(FloatVector.fromArray(FLOATS, centers, j * cluster + k));
+                    acc = diff.fma(diff, acc);
+                }
+                acc.intoArray(d2, k);
+            }
+            return;
+        }
+        int bound = FLOATS.loopBound(dimensions);
+        for (int k = 0; k < cluster; k++) {
+            int v = k * dimensions;
+            FloatVector acc = FloatVector.zero(FLOATS);
+            int j = 0;
+            for (; j < bound; j += FLOATS.length()) {
+                FloatVector diff = FloatVector.fromArray(FLOATS, x, xOffset + j).sub(FloatVector.fromArray(FLOATS, centers, v + j));
+                acc = diff.fma(diff, acc);
+            }
+            float sum = acc.reduceLanes(VectorOperators.ADD);
+            for (; j < dimensions; j++) {
+                float diff = x[xOffset + j] - centers[v + j];
+                sum += diff * diff;
+            }
+            d2[k] = sum;
+        }
+    }
+
+    @Override
+    public float fuzzyWeights(float[] d2, float[] w, int cluster) {
+        int bound = FLOATS.loopBound(cluster);
+        FloatVector one = FloatVector.broadcast(FLOATS, 1.0f);
+        FloatVector acc = FloatVector.zero(FLOATS);
+        int k = 0;
+        for (; k < bound; k += FLOATS.length()) {
+            FloatVector wk = one.div(FloatVector.fromArray(FLOATS, d2, k).sqrt());
+            wk.intoArray(w, k);
+            acc = acc.add(wk);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; k < cluster; k++) {
+            w[k] = 1 / (float) Math.sqrt(d2[k]);
+            sum += w[k];
+        }
+        return sum;
+    }
+
+    @Override
+    public void possibilisticMemberships(float[] d2, float[] ni, float[] u, int cluster) {
+        int bound = FLOATS.loopBound(cluster);
+        FloatVector one = FloatVector.broadcast(FLOATS, 1.0f);
+        int k = 0;
+        for (; k < bound; k += FLOATS.length()) {
+            FloatVector q = FloatVector.fromArray(FLOATS, d2, k).div(FloatVector.fromArray(FLOATS, ni, k));
+            one.div(one.add(q)).intoArray(u, k);
+        }
+        for (; k < cluster; k++) {
+            u[k] = 1 / (1 + d2[k] / ni[k]);
+        }
+    }
+
+    @Override
+    public void accumulate(float[] sum, float[] w, float[] x, int xOffset, int cluster, int dimensions) {
+        if (transposedSingle(dimensions)) {
+            for (int k = 0; k < cluster; k += FLOATS.length()) {
+                FloatVector wv = FloatVector.fromArray(FLOATS, w, k);
+                for (int j = 0; j < dimensions; j++) {
+                    int s = j * cluster + k;
+                    wv.fma(FloatVector.broadcast(FLOATS, x[xOffset + j]), FloatVector.fromArray(FLOATS, sum, s))
+                            .intoArray(sum, s);
+                }
+            }
+            return;
+        }
+        int bound = FLOATS.loopBound(dimensions);
+        for (int k = 0; k < cluster; k++) {
+            int v = k * dimensions;
+            FloatVector wv = FloatVector.broadcast(FLOATS, w[k]);
+            int j = 0;
+            for (; j < bound; j += FLOATS.length()) {
+                FloatVector.fromArray(FLOATS, x, xOffset + j)
+                        .fma(wv, FloatVector.fromArray(FLOATS, sum, v + j))
+                        .intoArray(sum, v + j);
+            }
+            for (; j < dimensions; j++) sum[v + j] += w[k] * x[xOffset + j];
+        }
+    }
+}